@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandlerCallback;
+import org.eclipse.smarthome.core.thing.binding.builder.ChannelBuilder;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.eclipse.smarthome.core.thing.type.ChannelTypeUID;
+import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+import org.openhab.binding.phidgets.internal.PhidgetsChannelFactory;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannel;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannels;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * Builds things, channels and handlers for the benchmarks. Handlers get their phidgets from
+ * {@link SimulatedChannels}, so neither hardware nor the phidget22 native library is needed.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+final class BenchmarkThings {
+    static final int SERIAL_NUMBER = 123456;
+    static final ThingUID THING_UID = new ThingUID(THING_PHIDGET_1010_1013_1018_1019,
+            String.valueOf(SERIAL_NUMBER));
+
+    private BenchmarkThings() {
+    }
+
+    /**
+     * Stub {@link ThingHandlerCallback} that counts state updates and keeps the last one, so the JIT cannot
+     * drop the work leading up to them. A delay makes it stand in for a slow event bus.
+     */
+    static final class StateSink implements InvocationHandler {
+        volatile long stateUpdates;
+        volatile Object lastState;
+        long delayNanos;
+
+        ThingHandlerCallback asCallback() {
+            return (ThingHandlerCallback) Proxy.newProxyInstance(ThingHandlerCallback.class.getClassLoader(),
+                    new Class<?>[] { ThingHandlerCallback.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "stateUpdated":
+                    if (delayNanos > 0) {
+                        LockSupport.parkNanos(delayNanos);
+                    }
+                    stateUpdates++;
+                    lastState = args[1];
+                    return null;
+                case "isChannelLinked":
+                    return Boolean.TRUE;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "StateSink";
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static Channel analogInput(int channel, int sensorType) {
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put(CHANNEL_CONFIG_SENSOR_TYPE, sensorType);
+        configuration.put(CHANNEL_CONFIG_POWER_SUPPLY, 0);
+        configuration.put(CHANNEL_CONFIG_VOLTAGE_RANGE, 0);
+        return channel(CHANNEL_ANALOG_INPUT, "analog-input-" + channel, "Number", configuration,
+                Collections.singletonMap(CHANNEL_PROPERTY_CHANNEL, String.valueOf(channel)));
+    }
+
+    static Channel vintPort(int port, int portMode) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(CHANNEL_PROPERTY_PORT, String.valueOf(port));
+        return channel(new ChannelTypeUID(BINDING_ID, CHANNEL_VINT_PORT), "vint-port-" + port, "Number",
+                Collections.singletonMap(CHANNEL_CONFIG_PORT_MODE, portMode), properties);
+    }
+
+    static Channel relayOutput(int channel) {
+        return channel(CHANNEL_RELAY_OUTPUT, "relay-output-" + channel, "Switch", Collections.emptyMap(),
+                Collections.singletonMap(CHANNEL_PROPERTY_CHANNEL, String.valueOf(channel)));
+    }
+
+    static Channel digitalInput(int channel) {
+        return channel(CHANNEL_DIGITAL_INPUT, "digital-input-" + channel, "Switch", Collections.emptyMap(),
+                Collections.singletonMap(CHANNEL_PROPERTY_CHANNEL, String.valueOf(channel)));
+    }
+
+    private static Channel channel(ChannelTypeUID channelTypeUID, String id, String itemType,
+            Map<String, Object> configuration, Map<String, String> properties) {
+        return channel(THING_UID, channelTypeUID, id, itemType, configuration, properties);
+    }
+
+    static Channel channel(ThingUID thingUID, ChannelTypeUID channelTypeUID, String id, String itemType,
+            Map<String, Object> configuration, Map<String, String> properties) {
+        return ChannelBuilder.create(new ChannelUID(thingUID, id), itemType).withType(channelTypeUID)
+                .withConfiguration(new Configuration(configuration)).withProperties(properties).build();
+    }
+
+    static Thing createThing(Channel... channels) {
+        return ThingBuilder.create(THING_PHIDGET_1010_1013_1018_1019, THING_UID.getId())
+                .withProperties(Collections.singletonMap(THING_CONFIG_SERIAL_NUMBER, String.valueOf(SERIAL_NUMBER)))
+                .withChannels(Arrays.asList(channels)).build();
+    }
+
+    /**
+     * Creates and initializes a handler on the given simulated channels, and attaches all channels of the thing
+     * once the handler has opened them.
+     */
+    static PhidgetsHandler createHandler(Thing thing, StateSink sink, SimulatedChannels channels) {
+        PhidgetsHandler handler = new PhidgetsHandler(thing, new PhidgetsChannelFactory(channels::getAdapter));
+        handler.setCallback(sink.asCallback());
+        handler.initialize();
+        awaitOpen(thing, channels);
+        for (Channel channel : thing.getChannels()) {
+            getChannel(channels, channel).attach();
+        }
+        return handler;
+    }
+
+    /**
+     * Waits until the handler of the thing has opened all its channels, which it does in the background.
+     */
+    static void awaitOpen(Thing thing, SimulatedChannels channels) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Channel channel : thing.getChannels()) {
+            while (channels.getChannel(channel.getUID()) == null) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Channel " + channel.getUID() + " was not opened");
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    /**
+     * @return the open simulated channel of the given channel
+     */
+    static SimulatedChannel getChannel(SimulatedChannels channels, Channel channel) {
+        SimulatedChannel simulated = channels.getChannel(channel.getUID());
+        if (simulated == null) {
+            throw new IllegalStateException("Channel " + channel.getUID() + " is not open");
+        }
+        return simulated;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import org.openhab.binding.phidgets.internal.Calibration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-sample cost of the {@link Calibration} types, applied to values spread over the input
+ * range the way raw voltages arrive.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalibrationBenchmark {
+    private Calibration none;
+    private Calibration linear;
+    private Calibration polynomial;
+    private Calibration table;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        none = Calibration.fromConfig(null);
+        linear = Calibration.fromConfig("linear:25.0,-12.5");
+        // a thermistor fit
+        polynomial = Calibration.fromConfig("polynomial:-40.2,61.7,-12.9,1.84");
+        StringBuilder points = new StringBuilder("table:");
+        for (int i = 0; i <= 32; i++) {
+            points.append(i == 0 ? "" : ",").append(i * 5d / 32).append('=').append(Math.sqrt(i) * 10);
+        }
+        table = Calibration.fromConfig(points.toString());
+    }
+
+    private double nextValue() {
+        return (counter++ & 1023) * (5d / 1024);
+    }
+
+    @Benchmark
+    public double none() {
+        return none.apply(nextValue());
+    }
+
+    @Benchmark
+    public double linear() {
+        return linear.apply(nextValue());
+    }
+
+    @Benchmark
+    public double polynomial() {
+        return polynomial.apply(nextValue());
+    }
+
+    @Benchmark
+    public double table() {
+        return table.apply(nextValue());
+    }
+}
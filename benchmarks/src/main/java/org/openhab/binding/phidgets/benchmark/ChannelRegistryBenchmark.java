@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import org.openhab.binding.phidgets.internal.PhidgetChannelKey;
+import org.openhab.binding.phidgets.internal.PhidgetChannelRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * Measures the channel registry behind {@link org.openhab.binding.phidgets.internal.PhidgetsChannelFactory}
+ * with plain objects in place of phidgets, next to the formatted string keys the factory used before.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelRegistryBenchmark {
+    private static final int CHANNELS = 64;
+
+    private PhidgetChannelRegistry<Object> registry;
+    private PhidgetChannelKey[] keys;
+    private Map<String, Object> legacy;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        registry = new PhidgetChannelRegistry<>(key -> new Object(), Runnable::run);
+        keys = new PhidgetChannelKey[CHANNELS];
+        legacy = new HashMap<>();
+        for (int i = 0; i < CHANNELS; i++) {
+            keys[i] = new PhidgetChannelKey(BenchmarkThings.SERIAL_NUMBER, CHANNEL_VOLTAGE_INPUT_ID, i,
+                    PhidgetChannelKey.NONE);
+            registry.get(keys[i]).join();
+            legacy.put(String.format("%d_%s_%d", BenchmarkThings.SERIAL_NUMBER, CHANNEL_VOLTAGE_INPUT_ID, i),
+                    new Object());
+        }
+    }
+
+    @Benchmark
+    public CompletableFuture<Object> lookup() {
+        return registry.get(keys[counter++ & (CHANNELS - 1)]);
+    }
+
+    @Benchmark
+    public CompletableFuture<Object> lookupWithNewKey() {
+        return registry.get(new PhidgetChannelKey(BenchmarkThings.SERIAL_NUMBER, CHANNEL_VOLTAGE_INPUT_ID,
+                counter++ & (CHANNELS - 1), PhidgetChannelKey.NONE));
+    }
+
+    @Benchmark
+    public Object lookupLegacyStringKey() {
+        return legacy.get(String.format("%d_%s_%d", BenchmarkThings.SERIAL_NUMBER, CHANNEL_VOLTAGE_INPUT_ID,
+                counter++ & (CHANNELS - 1)));
+    }
+
+    @Benchmark
+    public CompletableFuture<Object> createAndRemove() {
+        PhidgetChannelKey key = new PhidgetChannelKey(BenchmarkThings.SERIAL_NUMBER, CHANNEL_DIGITAL_OUTPUT_ID,
+                counter++ & (CHANNELS - 1), PhidgetChannelKey.NONE);
+        registry.get(key);
+        return registry.remove(key);
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import org.eclipse.smarthome.core.thing.Channel;
+import org.openhab.binding.phidgets.benchmark.BenchmarkThings.StateSink;
+import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+import org.openhab.binding.phidgets.internal.EventDispatcher.OverflowPolicy;
+import org.openhab.binding.phidgets.internal.ThingMetrics;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannel;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the time a phidget listener spends in the handler while the event bus is slowed down by the given
+ * delay per state update. Without a dispatcher the listener pays for the delay on every sample; with one it
+ * should stay flat, while the queue depth, drop and replace counts printed on tear down show what the
+ * overflow policy gave up.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatcherBenchmark {
+    private static final int CHANNELS = 8;
+
+    @Param({ "0", "100000" })
+    public long consumerDelayNanos;
+
+    @Param({ "direct", "latest", "drop-oldest" })
+    public String dispatch;
+
+    private StateSink sink;
+    private PhidgetsHandler handler;
+    private ExecutorService pool;
+    private SimulatedChannel[] inputs;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        Channel[] channels = new Channel[CHANNELS];
+        for (int i = 0; i < CHANNELS; i++) {
+            channels[i] = BenchmarkThings.analogInput(i, 0);
+        }
+        sink = new StateSink();
+        sink.delayNanos = consumerDelayNanos;
+        SimulatedChannels simulated = new SimulatedChannels();
+        handler = BenchmarkThings.createHandler(BenchmarkThings.createThing(channels), sink, simulated);
+        if (!"direct".equals(dispatch)) {
+            pool = Executors.newFixedThreadPool(2);
+            handler.setDispatcher(pool, 1024, OverflowPolicy.fromConfig(dispatch));
+        }
+        inputs = new SimulatedChannel[CHANNELS];
+        for (int i = 0; i < CHANNELS; i++) {
+            inputs[i] = BenchmarkThings.getChannel(simulated, channels[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ThingMetrics metrics = handler.getMetrics();
+        System.out.printf("%n%d states published, max queue depth %d, %d dropped, %d replaced%n",
+                sink.stateUpdates, metrics.dispatchQueueDepthMax.get(), metrics.dispatchDropped.sum(),
+                metrics.dispatchReplaced.sum());
+        handler.dispose();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void sensorChange() {
+        int i = counter++;
+        inputs[i & (CHANNELS - 1)].sensorChange((i & 1023) * 0.01d);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import com.phidget22.HubPortMode;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.types.RefreshType;
+import org.openhab.binding.phidgets.benchmark.BenchmarkThings.StateSink;
+import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the dispatch of commands in {@link PhidgetsHandler#handleCommand} to attached simulated channels.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerDispatchBenchmark {
+    private Channel voltageInput;
+    private Channel relayOutput;
+    private ChannelUID unboundChannel;
+    private PhidgetsHandler handler;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        voltageInput = BenchmarkThings.analogInput(0, 0);
+        Channel voltageRatioInput = BenchmarkThings.analogInput(1, 1);
+        Channel vintPort = BenchmarkThings.vintPort(0, HubPortMode.VOLTAGE_INPUT.getCode());
+        relayOutput = BenchmarkThings.relayOutput(0);
+        unboundChannel = new ChannelUID(BenchmarkThings.THING_UID, "unbound");
+        handler = BenchmarkThings.createHandler(
+                BenchmarkThings.createThing(voltageInput, voltageRatioInput, vintPort, relayOutput), new StateSink(),
+                new SimulatedChannels());
+    }
+
+    @TearDown
+    public void tearDown() {
+        handler.dispose();
+    }
+
+    @Benchmark
+    public void handleCommand() {
+        handler.handleCommand(relayOutput.getUID(), (counter++ & 1) == 0 ? OnOffType.ON : OnOffType.OFF);
+    }
+
+    @Benchmark
+    public void handleRefresh() {
+        handler.handleCommand(voltageInput.getUID(), RefreshType.REFRESH);
+    }
+
+    @Benchmark
+    public void handleRefreshUnbound() {
+        handler.handleCommand(unboundChannel, RefreshType.REFRESH);
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.openhab.binding.phidgets.benchmark.BenchmarkThings.StateSink;
+import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannel;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the path from a phidget listener to the state update of its channel, along with the pieces it is
+ * made of: creating the {@link DecimalType} and logging with and without an enabled-check.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerPathBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ListenerPathBenchmark.class);
+
+    private StateSink sink;
+    private PhidgetsHandler handler;
+    private SimulatedChannel voltageInput;
+    private ChannelUID voltageInputUID;
+    private SimulatedChannel digitalInput;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        Channel analog = BenchmarkThings.analogInput(0, 0);
+        Channel digital = BenchmarkThings.digitalInput(0);
+        sink = new StateSink();
+        SimulatedChannels channels = new SimulatedChannels();
+        handler = BenchmarkThings.createHandler(BenchmarkThings.createThing(analog, digital), sink, channels);
+        voltageInput = BenchmarkThings.getChannel(channels, analog);
+        voltageInputUID = analog.getUID();
+        digitalInput = BenchmarkThings.getChannel(channels, digital);
+    }
+
+    @TearDown
+    public void tearDown() {
+        handler.dispose();
+    }
+
+    private double nextValue() {
+        return (counter++ & 1023) * 0.01d;
+    }
+
+    @Benchmark
+    public long sensorChange() {
+        voltageInput.sensorChange(nextValue());
+        return sink.stateUpdates;
+    }
+
+    @Benchmark
+    public long stateChange() {
+        digitalInput.stateChange((counter++ & 1) == 0);
+        return sink.stateUpdates;
+    }
+
+    @Benchmark
+    public DecimalType decimalType() {
+        return new DecimalType(nextValue());
+    }
+
+    @Benchmark
+    public double unguardedDebugLog() {
+        double value = nextValue();
+        logger.debug("[{}] Sensor changed for {} to {}", BenchmarkThings.SERIAL_NUMBER, voltageInputUID.getId(),
+                value);
+        return value;
+    }
+
+    @Benchmark
+    public double guardedDebugLog() {
+        double value = nextValue();
+        if (logger.isDebugEnabled()) {
+            logger.debug("[{}] Sensor changed for {} to {}", BenchmarkThings.SERIAL_NUMBER, voltageInputUID.getId(),
+                    value);
+        }
+        return value;
+    }
+}
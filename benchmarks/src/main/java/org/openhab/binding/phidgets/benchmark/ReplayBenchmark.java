@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import org.eclipse.smarthome.core.thing.Channel;
+import org.openhab.binding.phidgets.benchmark.BenchmarkThings.StateSink;
+import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+import org.openhab.binding.phidgets.internal.EventRecorder;
+import org.openhab.binding.phidgets.internal.EventReplayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a capture file through a handler as fast as possible. Pass a recorded file with
+ * {@code -p file=/path/to/thing.phcap} and make sure the thing in {@link BenchmarkThings} has the recorded
+ * channels; without a file, a synthetic storm of sensor events on four analog inputs is replayed.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+    private static final int CHANNELS = 4;
+    private static final int EVENTS = 100000;
+
+    @Param({ "" })
+    public String file;
+
+    private Path replayFile;
+    private boolean synthetic;
+    private PhidgetsHandler handler;
+    private EventReplayer replayer;
+
+    @Setup
+    public void setup() throws IOException {
+        Channel[] channels = new Channel[CHANNELS];
+        for (int i = 0; i < CHANNELS; i++) {
+            channels[i] = BenchmarkThings.analogInput(i, 0);
+        }
+
+        synthetic = file.isEmpty();
+        if (synthetic) {
+            replayFile = Files.createTempFile("phidgets", ".phcap");
+            try (EventRecorder recorder = new EventRecorder(replayFile)) {
+                for (Channel channel : channels) {
+                    recorder.attach(channel.getUID().getId());
+                }
+                for (int i = 0; i < EVENTS; i++) {
+                    recorder.sensor(channels[i % CHANNELS].getUID().getId(), (i & 1023) * 0.01d);
+                }
+            }
+        } else {
+            replayFile = Paths.get(file);
+        }
+        replayer = new EventReplayer(replayFile, 0);
+        handler = BenchmarkThings.createHandler(BenchmarkThings.createThing(channels), new StateSink(),
+                replayer.getChannels());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        handler.dispose();
+        if (synthetic) {
+            Files.deleteIfExists(replayFile);
+        }
+    }
+
+    @Benchmark
+    public long replay() throws IOException {
+        return replayer.replay(BenchmarkThings.THING_UID);
+    }
+}
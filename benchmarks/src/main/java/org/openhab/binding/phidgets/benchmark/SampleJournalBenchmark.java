@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import org.openhab.binding.phidgets.internal.SampleJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * Measures appending samples to a {@link SampleJournal} from the callback thread while another thread drains
+ * them to the segment files at the interval the handler uses. Compare the append rate with
+ * {@link SampleJournal#getDropped()}, printed on tear down, to see whether draining keeps up.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SampleJournalBenchmark {
+    private Path directory;
+    private SampleJournal journal;
+    private int counter;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("phidgets-journal");
+        journal = new SampleJournal(directory, DEFAULT_JOURNAL_SEGMENT_SIZE_MB * 1024 * 1024, 4,
+                JOURNAL_CAPACITY);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        System.out.println(String.format("%n%d samples written, %d dropped", journal.getWritten(),
+                journal.getDropped()));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @Group("journal")
+    public void append() {
+        journal.append(System.nanoTime(), (counter++ & 1023) * 0.01d);
+    }
+
+    @Benchmark
+    @Group("journal")
+    public void drain() {
+        journal.drain();
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(JOURNAL_DRAIN_INTERVAL_MS));
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.eclipse.smarthome.core.thing.type.ChannelTypeUID;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+import org.openhab.binding.phidgets.internal.PhidgetChannelKey;
+import org.openhab.binding.phidgets.internal.adapter.PhidgetChannelAdapter;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannel;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannels;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * A software stand-in for one phidget device with voltage inputs, voltage ratio inputs, digital inputs and
+ * digital outputs. Its handler opens a {@link SimulatedChannel} for each of its channels, which it feeds events
+ * into the way the phidget22 listeners would. The outputs take their commands in place of
+ * {@code DigitalOutput.setState}, taking the configured write latency.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+final class SimulatedDevice {
+    /** Channels of each kind per device, repeated until the requested channel count is reached */
+    private static final ChannelTypeUID[] MIX = { CHANNEL_VOLTAGE_INPUT, CHANNEL_VOLTAGE_INPUT,
+            CHANNEL_VOLTAGE_RATIO_INPUT, CHANNEL_DIGITAL_INPUT, CHANNEL_DIGITAL_OUTPUT };
+
+    private final Thing thing;
+    private final SoakStatistics statistics;
+    private PhidgetsHandler handler;
+    /** Sensor and digital input channels, the sources of events */
+    private final List<SimulatedChannel> inputs = new ArrayList<>();
+    private final List<SimulatedChannel> outputs = new ArrayList<>();
+    private volatile boolean attached;
+
+    /**
+     * The simulated channels of all devices, whose outputs take the write latency and count the writes.
+     */
+    static final class Channels extends SimulatedChannels {
+        private final long writeLatencyNanos;
+        private final SoakStatistics statistics;
+
+        Channels(long writeLatencyNanos, SoakStatistics statistics) {
+            this.writeLatencyNanos = writeLatencyNanos;
+            this.statistics = statistics;
+        }
+
+        @Override
+        protected SimulatedChannel createChannel(PhidgetChannelAdapter adapter, PhidgetChannelKey key) {
+            return new SimulatedChannel(this) {
+                @Override
+                public State write(Command command) {
+                    if (!(command instanceof OnOffType)) {
+                        return null;
+                    }
+                    if (writeLatencyNanos > 0) {
+                        LockSupport.parkNanos(writeLatencyNanos);
+                    }
+                    statistics.written(getBinding().getUID());
+                    return super.write(command);
+                }
+            };
+        }
+    }
+
+    SimulatedDevice(int serialNumber, int channels, SoakStatistics statistics) {
+        this.statistics = statistics;
+        ThingUID thingUID = new ThingUID(THING_PHIDGET, String.valueOf(serialNumber));
+        List<Channel> thingChannels = new ArrayList<>();
+        Map<ChannelTypeUID, Integer> numbers = new HashMap<>();
+        for (int i = 0; i < channels; i++) {
+            ChannelTypeUID type = MIX[i % MIX.length];
+            int number = numbers.merge(type, 1, Integer::sum) - 1;
+            String itemType = type.equals(CHANNEL_DIGITAL_INPUT) || type.equals(CHANNEL_DIGITAL_OUTPUT) ? "Switch"
+                    : "Number";
+            Map<String, String> properties = Collections.singletonMap(CHANNEL_PROPERTY_CHANNEL,
+                    String.valueOf(number));
+            thingChannels.add(BenchmarkThings.channel(thingUID, type, type.getId() + "-" + number, itemType,
+                    Collections.emptyMap(), properties));
+        }
+        this.thing = ThingBuilder.create(THING_PHIDGET, thingUID.getId())
+                .withConfiguration(
+                        new Configuration(Collections.singletonMap(THING_CONFIG_SERIAL_NUMBER, serialNumber)))
+                .withChannels(thingChannels).build();
+    }
+
+    Thing getThing() {
+        return thing;
+    }
+
+    /**
+     * Takes the initialized handler created for the thing, waits for it to open the simulated channels and
+     * attaches them.
+     */
+    void bind(PhidgetsHandler handler, SimulatedChannels channels) {
+        this.handler = handler;
+        BenchmarkThings.awaitOpen(thing, channels);
+        for (Channel channel : thing.getChannels()) {
+            SimulatedChannel simulated = BenchmarkThings.getChannel(channels, channel);
+            if (channel.getChannelTypeUID().equals(CHANNEL_DIGITAL_OUTPUT)) {
+                outputs.add(simulated);
+            } else {
+                inputs.add(simulated);
+            }
+            statistics.register(channel.getUID());
+        }
+        attach();
+    }
+
+    PhidgetsHandler getHandler() {
+        return handler;
+    }
+
+    List<SimulatedChannel> getInputs() {
+        return inputs;
+    }
+
+    List<SimulatedChannel> getOutputs() {
+        return outputs;
+    }
+
+    void attach() {
+        for (SimulatedChannel channel : inputs) {
+            channel.attach();
+        }
+        for (SimulatedChannel channel : outputs) {
+            channel.attach();
+        }
+        attached = true;
+    }
+
+    void detach() {
+        attached = false;
+        for (SimulatedChannel channel : inputs) {
+            channel.detach();
+        }
+        for (SimulatedChannel channel : outputs) {
+            channel.detach();
+        }
+    }
+
+    /**
+     * Fires the next event of the given input, as its phidget listener would.
+     */
+    void fire(SimulatedChannel input, long sequence) {
+        if (!attached) {
+            return;
+        }
+        statistics.emitted(input.getBinding().getUID());
+        if (input.getBinding().getChannelTypeId().equals(CHANNEL_DIGITAL_INPUT_ID)) {
+            input.stateChange((sequence & 1) == 0);
+        } else {
+            input.sensorChange((sequence % 10000) * 0.001d);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandlerCallback;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the measurements of the soak test. It is the {@link ThingHandlerCallback} of all handlers, so it
+ * sees every state update, and matches them with the time the simulated event of the channel was fired.
+ * When several events of a channel are coalesced into one update, the latency is taken from the latest one.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+final class SoakStatistics implements InvocationHandler {
+    final LatencyHistogram eventLatency = new LatencyHistogram();
+    final LatencyHistogram commandLatency = new LatencyHistogram();
+    final LongAdder events = new LongAdder();
+    final LongAdder states = new LongAdder();
+    final LongAdder commands = new LongAdder();
+    final LongAdder writes = new LongAdder();
+
+    private final Map<ChannelUID, Integer> indexes = new ConcurrentHashMap<>();
+    private final AtomicLongArray firedAt;
+    private final AtomicLongArray commandedAt;
+
+    SoakStatistics(int channels) {
+        firedAt = new AtomicLongArray(channels);
+        commandedAt = new AtomicLongArray(channels);
+    }
+
+    ThingHandlerCallback asCallback() {
+        return (ThingHandlerCallback) Proxy.newProxyInstance(ThingHandlerCallback.class.getClassLoader(),
+                new Class<?>[] { ThingHandlerCallback.class }, this);
+    }
+
+    void register(ChannelUID channelUID) {
+        indexes.putIfAbsent(channelUID, indexes.size());
+    }
+
+    void emitted(ChannelUID channelUID) {
+        events.increment();
+        firedAt.set(indexes.get(channelUID), System.nanoTime());
+    }
+
+    void commanded(ChannelUID channelUID) {
+        commands.increment();
+        commandedAt.set(indexes.get(channelUID), System.nanoTime());
+    }
+
+    void written(ChannelUID channelUID) {
+        writes.increment();
+        commandLatency.record(System.nanoTime() - commandedAt.get(indexes.get(channelUID)));
+    }
+
+    private void stateUpdated(ChannelUID channelUID) {
+        states.increment();
+        Integer index = indexes.get(channelUID);
+        if (index == null) {
+            return;
+        }
+        long firedAt = this.firedAt.getAndSet(index, 0);
+        if (firedAt != 0) {
+            eventLatency.record(System.nanoTime() - firedAt);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "stateUpdated":
+                stateUpdated((ChannelUID) args[0]);
+                return null;
+            case "isChannelLinked":
+                return Boolean.TRUE;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "SoakStatistics";
+            default:
+                return null;
+        }
+    }
+}
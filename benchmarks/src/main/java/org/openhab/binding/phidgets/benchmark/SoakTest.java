@@ -0,0 +1,383 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.benchmark;
+
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+import org.openhab.binding.phidgets.internal.PhidgetsChannelFactory;
+import org.openhab.binding.phidgets.internal.PhidgetsHandlerFactory;
+import org.openhab.binding.phidgets.internal.ThingMetrics;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannel;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannels;
+import org.osgi.service.component.ComponentContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * Macro load and soak test of the binding against {@link SimulatedDevice}s. Handlers are created by the
+ * {@link PhidgetsHandlerFactory} with its dispatcher and pulse timer, on a channel factory whose phidgets are
+ * simulated channels, and then driven by event generator threads, concurrent command threads and attach/detach
+ * storms for the given duration. Runs headless, without hardware or the phidget22 native library:
+ *
+ * <pre>
+ * java -Xmx512m -cp benchmarks/target/benchmarks.jar:src/main/resources/lib/phidget22.jar \
+ *     org.openhab.binding.phidgets.benchmark.SoakTest --devices 50 --channels 30 --duration 3600
+ * </pre>
+ *
+ * Every report interval and at the end, it prints the event to state update and command to output write
+ * latencies, the throughput, the heap in use and the thread count. The command latency includes the
+ * simulated write latency, and the maximum latencies include the full collection before each heap reading.
+ * Options are given as {@code --name value}, see {@link #OPTIONS}.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+public final class SoakTest {
+    private static final int FIRST_SERIAL_NUMBER = 500000;
+    /** Generator threads sleep this long between checking how many events they owe */
+    private static final long TICK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /** The options and their defaults */
+    private static final String[][] OPTIONS = { { "devices", "50" }, { "channels", "30" },
+            { "duration", "3600", "seconds" }, { "report", "30", "seconds" }, { "rate", "2000", "events/s" },
+            { "burst-rate", "10000", "events/s" }, { "burst-every", "60", "seconds, 0 for no bursts" },
+            { "burst-length", "10", "seconds" }, { "generator-threads", "2" }, { "command-rate", "100", "/s" },
+            { "command-threads", "4" }, { "write-latency", "500", "us" },
+            { "storm-every", "120", "seconds, 0 for no storms" }, { "storm-devices", "10" },
+            { "storm-down", "500", "ms" }, { "dispatcher-threads", "2" }, { "dispatcher-queue-size", "1024" },
+            { "dispatcher-overflow", "latest" },
+            { "gc-on-report", "1", "1 collects before measuring the heap" } };
+
+    private final Map<String, String> options;
+    private final SoakStatistics statistics;
+    private final List<SimulatedDevice> devices = new ArrayList<>();
+    private final List<SimulatedChannel> outputs = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+    private volatile boolean running = true;
+
+    /**
+     * Exposes the protected lifecycle of the factory to the soak test, and creates the handlers on the
+     * simulated channels.
+     */
+    private static final class SoakHandlerFactory extends PhidgetsHandlerFactory {
+        private ComponentContext context;
+
+        SoakHandlerFactory(SimulatedChannels channels) {
+            super(new PhidgetsChannelFactory(channels::getAdapter));
+        }
+
+        void start(Dictionary<String, Object> properties) {
+            context = (ComponentContext) Proxy.newProxyInstance(ComponentContext.class.getClassLoader(),
+                    new Class<?>[] { ComponentContext.class },
+                    (proxy, method, args) -> "getProperties".equals(method.getName()) ? properties : null);
+            activate(context);
+        }
+
+        void stop() {
+            deactivate(context);
+        }
+
+        PhidgetsHandler create(Thing thing) {
+            return (PhidgetsHandler) createHandler(thing);
+        }
+    }
+
+    private SoakTest(Map<String, String> options) {
+        this.options = options;
+        this.statistics = new SoakStatistics(option("devices") * option("channels"));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String[] option : OPTIONS) {
+            options.put(option[0], option[1]);
+        }
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i].startsWith("--") ? args[i].substring(2) : args[i];
+            if (!options.containsKey(name) || i + 1 == args.length) {
+                printUsage();
+                return;
+            }
+            options.put(name, args[++i]);
+        }
+        new SoakTest(options).run();
+        // the framework thread pools of the handlers are not daemon threads
+        System.exit(0);
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: SoakTest [--<option> <value>]...");
+        for (String[] option : OPTIONS) {
+            System.out.println(String.format("  --%-22s default %s %s", option[0], option[1],
+                    option.length > 2 ? option[2] : ""));
+        }
+    }
+
+    private int option(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private void run() throws InterruptedException {
+        System.out.println("Soak test with " + options);
+        long writeLatency = TimeUnit.MICROSECONDS.toNanos(option("write-latency"));
+        SimulatedChannels channels = new SimulatedDevice.Channels(writeLatency, statistics);
+        SoakHandlerFactory factory = new SoakHandlerFactory(channels);
+        Dictionary<String, Object> properties = new Hashtable<>();
+        properties.put(BINDING_CONFIG_DISPATCHER_THREADS, option("dispatcher-threads"));
+        properties.put(BINDING_CONFIG_DISPATCHER_QUEUE_SIZE, option("dispatcher-queue-size"));
+        properties.put(BINDING_CONFIG_DISPATCHER_OVERFLOW, options.get("dispatcher-overflow"));
+        factory.start(properties);
+
+        List<List<SimulatedChannel>> slices = new ArrayList<>();
+        List<List<SimulatedDevice>> sliceDevices = new ArrayList<>();
+        for (int i = 0; i < option("generator-threads"); i++) {
+            slices.add(new ArrayList<>());
+            sliceDevices.add(new ArrayList<>());
+        }
+        int next = 0;
+        for (int i = 0; i < option("devices"); i++) {
+            SimulatedDevice device = new SimulatedDevice(FIRST_SERIAL_NUMBER + i, option("channels"), statistics);
+            PhidgetsHandler handler = factory.create(device.getThing());
+            handler.setCallback(statistics.asCallback());
+            handler.initialize();
+            device.bind(handler, channels);
+            devices.add(device);
+            outputs.addAll(device.getOutputs());
+            for (SimulatedChannel input : device.getInputs()) {
+                slices.get(next % slices.size()).add(input);
+                sliceDevices.get(next++ % slices.size()).add(device);
+            }
+        }
+        System.out.println(String.format("%d devices with %d inputs and %d outputs", devices.size(), next,
+                outputs.size()));
+
+        for (int i = 0; i < slices.size(); i++) {
+            List<SimulatedChannel> inputs = slices.get(i);
+            List<SimulatedDevice> owners = sliceDevices.get(i);
+            start("soak-events-" + i, () -> generate(inputs, owners, slices.size()));
+        }
+        for (int i = 0; i < option("command-threads"); i++) {
+            start("soak-commands-" + i, this::command);
+        }
+        if (option("storm-every") > 0) {
+            start("soak-storms", this::storm);
+        }
+
+        long end = startNanos + TimeUnit.SECONDS.toNanos(option("duration"));
+        long report = TimeUnit.SECONDS.toNanos(option("report"));
+        Report total = new Report();
+        Report interval = new Report();
+        while (System.nanoTime() < end) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(report, end - System.nanoTime()));
+            interval.print(total);
+        }
+        running = false;
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+        interval.print(total);
+        total.printTotal();
+        for (SimulatedDevice device : devices) {
+            device.getHandler().dispose();
+        }
+        factory.stop();
+    }
+
+    private void start(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    /**
+     * @return the events per second of all generators, which is the burst rate during a burst
+     */
+    private double rate(long now) {
+        long elapsed = TimeUnit.NANOSECONDS.toSeconds(now - startNanos);
+        int burstEvery = option("burst-every");
+        return burstEvery > 0 && elapsed % burstEvery < option("burst-length") ? option("burst-rate")
+                : option("rate");
+    }
+
+    /**
+     * Fires the events owed at the current rate round robin over the given inputs.
+     */
+    private void generate(List<SimulatedChannel> inputs, List<SimulatedDevice> owners, int generators) {
+        double owed = 0;
+        long sequence = 0;
+        int next = 0;
+        long last = System.nanoTime();
+        while (running && !inputs.isEmpty()) {
+            long now = System.nanoTime();
+            double rate = rate(now) / generators;
+            // a generator that fell behind catches up on at most 100 ms of events
+            owed = Math.min(owed + rate * (now - last) / 1e9, rate / 10);
+            last = now;
+            for (; owed >= 1; owed--) {
+                owners.get(next).fire(inputs.get(next), sequence++);
+                next = (next + 1) % inputs.size();
+            }
+            LockSupport.parkNanos(TICK_NANOS);
+        }
+    }
+
+    private void command() {
+        double rate = (double) option("command-rate") / option("command-threads");
+        double owed = 0;
+        long last = System.nanoTime();
+        while (running && !outputs.isEmpty()) {
+            long now = System.nanoTime();
+            owed = Math.min(owed + rate * (now - last) / 1e9, Math.max(1, rate / 10));
+            last = now;
+            for (; owed >= 1; owed--) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                PhidgetChannelBinding output = outputs.get(random.nextInt(outputs.size())).getBinding();
+                statistics.commanded(output.getUID());
+                OnOffType command = random.nextBoolean() ? OnOffType.ON : OnOffType.OFF;
+                handlerOf(output).handleCommand(output.getUID(), command);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private PhidgetsHandler handlerOf(PhidgetChannelBinding binding) {
+        return devices.get(binding.getKey().getSerialNumber() - FIRST_SERIAL_NUMBER).getHandler();
+    }
+
+    /**
+     * Detaches a number of random devices at once and attaches them again after the down time.
+     */
+    private void storm() {
+        long every = TimeUnit.SECONDS.toNanos(option("storm-every"));
+        while (running) {
+            LockSupport.parkNanos(every);
+            if (!running) {
+                return;
+            }
+            List<SimulatedDevice> stormed = new ArrayList<>();
+            for (int i = 0; i < Math.min(option("storm-devices"), devices.size()); i++) {
+                SimulatedDevice device = devices.get(ThreadLocalRandom.current().nextInt(devices.size()));
+                if (!stormed.contains(device)) {
+                    device.detach();
+                    stormed.add(device);
+                }
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(option("storm-down")));
+            for (SimulatedDevice device : stormed) {
+                device.attach();
+            }
+            System.out.println(String.format("storm: detached and attached %d devices", stormed.size()));
+        }
+    }
+
+    /**
+     * Counts and latencies since the previous report.
+     */
+    private final class Report {
+        private final LatencyHistogram eventLatency = new LatencyHistogram();
+        private final LatencyHistogram commandLatency = new LatencyHistogram();
+        private long events;
+        private long states;
+        private long commands;
+        private long writes;
+        private long since = startNanos;
+        private long firstHeap = -1;
+        private long peakHeap;
+
+        void print(Report total) {
+            long now = System.nanoTime();
+            double seconds = (now - since) / 1e9;
+            since = now;
+            statistics.eventLatency.drainInto(eventLatency);
+            statistics.commandLatency.drainInto(commandLatency);
+            long events = statistics.events.sum();
+            long states = statistics.states.sum();
+            long commands = statistics.commands.sum();
+            long writes = statistics.writes.sum();
+            long heap = heapUsed();
+            if (total.firstHeap < 0) {
+                total.firstHeap = heap;
+            }
+            total.peakHeap = Math.max(total.peakHeap, heap);
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            System.out.println(String.format(
+                    "%5.0f s: events %.0f/s, states %.0f/s, commands %.0f/s, writes %.0f/s, %s, %s, "
+                            + "heap %d MB, threads %d",
+                    (now - startNanos) / 1e9, (events - this.events) / seconds,
+                    (states - this.states) / seconds, (commands - this.commands) / seconds,
+                    (writes - this.writes) / seconds, latencies("event", eventLatency),
+                    latencies("command", commandLatency), heap >> 20, threadBean.getThreadCount()));
+            this.events = events;
+            this.states = states;
+            this.commands = commands;
+            this.writes = writes;
+            eventLatency.drainInto(total.eventLatency);
+            commandLatency.drainInto(total.commandLatency);
+        }
+
+        void printTotal() {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            long dropped = 0;
+            long replaced = 0;
+            for (SimulatedDevice device : devices) {
+                ThingMetrics metrics = device.getHandler().getMetrics();
+                dropped += metrics.dispatchDropped.sum();
+                replaced += metrics.dispatchReplaced.sum();
+            }
+            System.out.println(String.format("total %.0f s: %d events (%.0f/s), %d states (%.0f/s), %d commands, "
+                    + "%d writes", seconds, statistics.events.sum(), statistics.events.sum() / seconds,
+                    statistics.states.sum(), statistics.states.sum() / seconds, statistics.commands.sum(),
+                    statistics.writes.sum()));
+            System.out.println("total " + latencies("event", eventLatency) + ", "
+                    + latencies("command", commandLatency));
+            System.out.println(String.format(
+                    "total heap %d MB at first report, %d MB at the end, %d MB peak; "
+                            + "threads %d, %d peak; dispatcher dropped %d, replaced %d",
+                    firstHeap >> 20, heapUsed() >> 20, peakHeap >> 20, threadBean.getThreadCount(),
+                    threadBean.getPeakThreadCount(), dropped, replaced));
+        }
+
+        private String latencies(String name, LatencyHistogram histogram) {
+            return String.format("%s p50/p99/max %.0f/%.0f/%.0f us", name, histogram.percentile(50) / 1e3,
+                    histogram.percentile(99) / 1e3, histogram.max() / 1e3);
+        }
+    }
+
+    /**
+     * @return the heap in use, after a full collection unless disabled, so it only grows with retained objects
+     */
+    private long heapUsed() {
+        if (option("gc-on-report") != 0) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -35,14 +35,29 @@ public class PhidgetsBindingConstants {
     static {
         try {
             Class.forName("com.phidget22.PhidgetBase");
-        } catch (ClassNotFoundException e) {
+        } catch (ClassNotFoundException | LinkageError e) {
             logger.error("Unable to load phidgets library", e);
         }
     }
 
-    private static final String BINDING_ID = "phidgets";
+    public static final String BINDING_ID = "phidgets";
 
     public static final String BINDING_CONFIG_LOG_FILE = "logfile";
+    public static final String BINDING_CONFIG_CAPTURE_DIRECTORY = "capture-directory";
+    public static final String BINDING_CONFIG_REPLAY_DIRECTORY = "replay-directory";
+    public static final String BINDING_CONFIG_REPLAY_SPEED = "replay-speed";
+    public static final String BINDING_CONFIG_SERVERS = "servers";
+    public static final String BINDING_CONFIG_UNLINK_GRACE_PERIOD = "unlink-grace-period";
+    public static final String BINDING_CONFIG_JOURNAL_DIRECTORY = "journal-directory";
+    public static final String BINDING_CONFIG_JOURNAL_SEGMENT_SIZE = "journal-segment-size";
+    public static final String BINDING_CONFIG_JOURNAL_RETENTION = "journal-retention";
+    public static final String BINDING_CONFIG_DISPATCHER_THREADS = "dispatcher-threads";
+    public static final String BINDING_CONFIG_DISPATCHER_QUEUE_SIZE = "dispatcher-queue-size";
+    public static final String BINDING_CONFIG_DISPATCHER_OVERFLOW = "dispatcher-overflow";
+
+    public static final int DEFAULT_SERVER_PORT = 5661;
+
+    public static final String CAPTURE_FILE_EXTENSION = ".phcap";
 
     public static final ThingTypeUID THING_PHIDGET = new ThingTypeUID(BINDING_ID, "phidget");
     public static final ThingTypeUID THING_PHIDGET_1010_1013_1018_1019 = new ThingTypeUID(BINDING_ID, "phidget_1010_1013_1018_1019");
@@ -51,6 +66,11 @@ public class PhidgetsBindingConstants {
     public static final ThingTypeUID THING_PHIDGET_1014 = new ThingTypeUID(BINDING_ID, "phidget_1014");
     public static final ThingTypeUID THING_PHIDGET_1017 = new ThingTypeUID(BINDING_ID, "phidget_1017");
     public static final ThingTypeUID THING_PHIDGET_1046 = new ThingTypeUID(BINDING_ID, "phidget_1046");
+    public static final ThingTypeUID THING_PHIDGET_DAQ1000 = new ThingTypeUID(BINDING_ID, "phidget_daq1000");
+    public static final ThingTypeUID THING_PHIDGET_DAQ1200 = new ThingTypeUID(BINDING_ID, "phidget_daq1200");
+    public static final ThingTypeUID THING_PHIDGET_DAQ1300 = new ThingTypeUID(BINDING_ID, "phidget_daq1300");
+    public static final ThingTypeUID THING_PHIDGET_DAQ1301 = new ThingTypeUID(BINDING_ID, "phidget_daq1301");
+    public static final ThingTypeUID THING_PHIDGET_DAQ1500 = new ThingTypeUID(BINDING_ID, "phidget_daq1500");
     public static final ThingTypeUID THING_PHIDGET_HUB0000 = new ThingTypeUID(BINDING_ID, "phidget_hub0000");
 
     public static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = new HashSet<>(Arrays.asList(
@@ -60,10 +80,18 @@ public class PhidgetsBindingConstants {
             THING_PHIDGET_1012,
             THING_PHIDGET_1014,
             THING_PHIDGET_1017,
-            THING_PHIDGET_1046
+            THING_PHIDGET_1046,
+            THING_PHIDGET_DAQ1000,
+            THING_PHIDGET_DAQ1200,
+            THING_PHIDGET_DAQ1300,
+            THING_PHIDGET_DAQ1301,
+            THING_PHIDGET_DAQ1500,
+            THING_PHIDGET_HUB0000
     ));
 
     public static final String THING_CONFIG_SERIAL_NUMBER = "serialNumber";
+    public static final String THING_CONFIG_INTERLOCKS = "interlocks";
+    public static final String THING_PROPERTY_ACQUISITION_WAIT = "acquisitionWait";
 
     public static final String CHANNEL_VOLTAGE_INPUT_ID = "voltage-input";
     public static final String CHANNEL_VOLTAGE_RATIO_INPUT_ID = "voltage-ratio-input";
@@ -71,7 +99,15 @@ public class PhidgetsBindingConstants {
     public static final String CHANNEL_DIGITAL_OUTPUT_ID = "digital-output";
     public static final String CHANNEL_ANALOG_INPUT_ID = "analog-input";
     public static final String CHANNEL_RELAY_OUTPUT_ID = "relay-output";
+    public static final String CHANNEL_TEMPERATURE_INPUT_ID = "temperature-input";
+    public static final String CHANNEL_FREQUENCY_INPUT_ID = "frequency-input";
+    public static final String CHANNEL_ENCODER_INPUT_ID = "encoder-input";
+    public static final String CHANNEL_CURRENT_INPUT_ID = "current-input";
     public static final String CHANNEL_VINT_PORT = "vint-port";
+    public static final String CHANNEL_STATISTIC_ID = "statistic";
+    public static final String CHANNEL_DIAGNOSTIC_ID = "diagnostic";
+    public static final String CHANNEL_COUNTER_ID = "counter";
+    public static final String CHANNEL_OUTPUT_GROUP_ID = "output-group";
 
     public static final ChannelTypeUID CHANNEL_VOLTAGE_INPUT = new ChannelTypeUID(BINDING_ID, CHANNEL_VOLTAGE_INPUT_ID);
     public static final ChannelTypeUID CHANNEL_VOLTAGE_RATIO_INPUT = new ChannelTypeUID(BINDING_ID, CHANNEL_VOLTAGE_RATIO_INPUT_ID);
@@ -87,11 +123,47 @@ public class PhidgetsBindingConstants {
     public static final String CHANNEL_CONFIG_DUTY_CYCLE = "duty-cycle";
     public static final String CHANNEL_CONFIG_LED_CURRENT_LIMIT = "led-current-limit";
     public static final String CHANNEL_CONFIG_LED_FORWARD_VOLTAGE = "led-forward-voltage";
+    public static final String CHANNEL_CONFIG_AUTO_OFF = "auto-off";
     public static final String CHANNEL_CONFIG_SENSOR_TYPE = "sensor-type";
     public static final String CHANNEL_CONFIG_VOLTAGE_RANGE = "voltage-range";
     public static final String CHANNEL_CONFIG_BRIDGE_ENABLE = "bridge-enable";
     public static final String CHANNEL_CONFIG_BRIDGE_GAIN = "bridge-gain";
     public static final String CHANNEL_CONFIG_SENSITIVITY = "sensitivity";
     public static final String CHANNEL_CONFIG_PORT_MODE = "port-mode";
+    public static final String CHANNEL_CONFIG_PUBLISH_INTERVAL = "publish-interval";
+    public static final String CHANNEL_CONFIG_DEADBAND = "deadband";
+    public static final String CHANNEL_CONFIG_DEADBAND_RELATIVE = "deadband-relative";
+    public static final String CHANNEL_CONFIG_AGGREGATION = "aggregation";
+    public static final String CHANNEL_CONFIG_DATA_INTERVAL = "data-interval";
+    public static final String CHANNEL_CONFIG_HIGH_RATE = "high-rate";
+    public static final String CHANNEL_CONFIG_BUFFER_SIZE = "buffer-size";
+    public static final String CHANNEL_CONFIG_JOURNAL = "journal";
+    public static final String CHANNEL_CONFIG_CALIBRATION = "calibration";
+    public static final String CHANNEL_CONFIG_COUNTER = "counter";
+    public static final String CHANNEL_CONFIG_COUNTER_EDGE = "counter-edge";
+    public static final String CHANNEL_CONFIG_VALUE = "value";
+    public static final String CHANNEL_COUNTER_FREQUENCY = "frequency";
+    public static final String CHANNEL_CONFIG_SOURCE = "source";
+    public static final String CHANNEL_CONFIG_STATISTIC = "statistic";
+    public static final String CHANNEL_CONFIG_WINDOW = "window";
+    public static final String CHANNEL_CONFIG_REFRESH_INTERVAL = "refresh-interval";
+    public static final String CHANNEL_CONFIG_METRIC = "metric";
+    public static final String CHANNEL_CONFIG_MEMBERS = "members";
+    public static final String CHANNEL_CONFIG_MASK = "mask";
+    public static final int CHANNEL_DEFAULT_BUFFER_SIZE = 1024;
+    public static final long CHANNEL_DEFAULT_WINDOW = 10000;
     public static final double CHANNEL_DEFAULT_SENSITIVITY = 0.01d;
+
+    public static final long OUTPUT_RESTORE_DELAY_MS = 50;
+    public static final long STATUS_DEBOUNCE_MS = 250;
+    public static final long DEFAULT_UNLINK_GRACE_PERIOD_MS = 30000;
+    public static final int DEFAULT_JOURNAL_SEGMENT_SIZE_MB = 16;
+    public static final int DEFAULT_JOURNAL_RETENTION = 16;
+    public static final int JOURNAL_CAPACITY = 65536;
+    public static final long JOURNAL_DRAIN_INTERVAL_MS = 100;
+    public static final int DEFAULT_DISPATCHER_THREADS = 2;
+    public static final int DEFAULT_DISPATCHER_QUEUE_SIZE = 1024;
+    public static final long CHANNEL_DEFAULT_COUNTER_INTERVAL = 1000;
+    public static final long COUNTER_PERSIST_INTERVAL_MS = 60000;
+    public static final String COUNTER_STORAGE_NAME = "org.openhab.binding.phidgets.counters";
 }
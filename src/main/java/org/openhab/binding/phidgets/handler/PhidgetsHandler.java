@@ -13,19 +13,65 @@
 package org.openhab.binding.phidgets.handler;
 
 import com.phidget22.*;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.storage.Storage;
 import org.eclipse.smarthome.core.thing.*;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.RefreshType;
-import org.openhab.binding.phidgets.internal.PhidgetChannelRequest;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.Calibration;
+import org.openhab.binding.phidgets.internal.ChannelMetrics;
+import org.openhab.binding.phidgets.internal.DiagnosticMetric;
+import org.openhab.binding.phidgets.internal.EventDispatcher;
+import org.openhab.binding.phidgets.internal.EventDispatcher.OverflowPolicy;
+import org.openhab.binding.phidgets.internal.EventRecorder;
+import org.openhab.binding.phidgets.internal.EventReplayer;
+import org.openhab.binding.phidgets.internal.Interlock;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+import org.openhab.binding.phidgets.internal.PhidgetChannelKey;
 import org.openhab.binding.phidgets.internal.PhidgetsChannelFactory;
+import org.openhab.binding.phidgets.internal.PulseCounter;
+import org.openhab.binding.phidgets.internal.PulseTimer;
+import org.openhab.binding.phidgets.internal.SampleJournal;
+import org.openhab.binding.phidgets.internal.SampleRingBuffer;
+import org.openhab.binding.phidgets.internal.SampleRingBuffer.Statistics;
+import org.openhab.binding.phidgets.internal.SampleStatistic;
+import org.openhab.binding.phidgets.internal.SensorCoalescer;
+import org.openhab.binding.phidgets.internal.StartupReport;
+import org.openhab.binding.phidgets.internal.StartupTimes;
+import org.openhab.binding.phidgets.internal.ThingMetrics;
+import org.openhab.binding.phidgets.internal.adapter.PhidgetChannel;
+import org.openhab.binding.phidgets.internal.adapter.PhidgetChannelAdapter;
+import org.openhab.binding.phidgets.internal.adapter.PhidgetChannelAdapters;
+import org.openhab.binding.phidgets.internal.adapter.PhidgetChannelListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
 
@@ -38,66 +84,242 @@ import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
 public class PhidgetsHandler extends BaseThingHandler {
     private static final Logger logger = LoggerFactory.getLogger(PhidgetsHandler.class);
 
+    /** Channel configuration parameters that are applied to an attached phidget without reopening it */
+    private static final Set<String> LIVE_PARAMETERS = new HashSet<>(Arrays.asList(CHANNEL_CONFIG_SENSITIVITY,
+            CHANNEL_CONFIG_DATA_INTERVAL, CHANNEL_CONFIG_SENSOR_TYPE, CHANNEL_CONFIG_POWER_SUPPLY,
+            CHANNEL_CONFIG_VOLTAGE_RANGE, CHANNEL_CONFIG_BRIDGE_ENABLE, CHANNEL_CONFIG_BRIDGE_GAIN,
+            CHANNEL_CONFIG_INPUT_MODE, CHANNEL_CONFIG_DUTY_CYCLE, CHANNEL_CONFIG_LED_CURRENT_LIMIT,
+            CHANNEL_CONFIG_LED_FORWARD_VOLTAGE, CHANNEL_CONFIG_AUTO_OFF));
+    /** Channel configuration parameters that select the listeners of the phidget, which are only added on open */
+    private static final Set<String> REOPEN_PARAMETERS = Collections.singleton(CHANNEL_CONFIG_HIGH_RATE);
+
     private int serialNumber;
 
     private PhidgetsChannelFactory phidgetsChannelFactory;
 
-    private Map<ChannelUID, AttachListener> currentStateChanger;
+    private volatile Map<ChannelUID, PhidgetChannelBinding> bindings = Collections.emptyMap();
+    /** Member channels of the output group channels */
+    private volatile Map<ChannelUID, List<ChannelUID>> groups = Collections.emptyMap();
+    /** Interlocks by their input channel, evaluated on the listener path */
+    private volatile Map<ChannelUID, Interlock[]> interlocks = Collections.emptyMap();
+    /** Input and output channels of the interlocks, which are kept open whether linked or not */
+    private volatile Set<ChannelUID> interlockChannels = Collections.emptySet();
+
+    private final List<ScheduledFuture<?>> publishJobs = new CopyOnWriteArrayList<>();
+    /** Publishing jobs of the sensor channels, cancelled when their channel is reopened */
+    private final Map<ChannelUID, List<ScheduledFuture<?>>> channelJobs = new ConcurrentHashMap<>();
+
+    private final ThingMetrics metrics = new ThingMetrics();
+
+    /** Takes the events of the phidgets of this thing, on their callback threads */
+    private final PhidgetChannelListener listener = new PhidgetChannelListener() {
+        @Override
+        public void onAttach(PhidgetChannelBinding binding) {
+            PhidgetsHandler.this.onAttach(binding);
+        }
+
+        @Override
+        public void onDetach(PhidgetChannelBinding binding) {
+            PhidgetsHandler.this.onDetach(binding);
+        }
+
+        @Override
+        public void onSensorChange(PhidgetChannelBinding binding, double value) {
+            PhidgetsHandler.this.onSensorChange(binding, value);
+        }
+
+        @Override
+        public void onStateChange(PhidgetChannelBinding binding, boolean state) {
+            PhidgetsHandler.this.onStateChange(binding, state);
+        }
+    };
+
+    private final AtomicInteger attachedChannels = new AtomicInteger();
+    /** Needed channels whose phidget was not acquired in time, counted as not attached until it is */
+    private final Set<PhidgetChannelBinding> missingChannels = ConcurrentHashMap.newKeySet();
+    /** Whether the channels have been set up since initialization, before which the status stays UNKNOWN */
+    private volatile boolean channelsSetUp;
+    private final Object statusLock = new Object();
+    private @Nullable ScheduledFuture<?> statusJob;
+    private @Nullable ThingStatusInfo lastStatus;
+
+    private final Map<PhidgetChannelBinding, Command> pendingCommands = new ConcurrentHashMap<>();
+    private final Object restoreLock = new Object();
+    private @Nullable ScheduledFuture<?> restoreJob;
+    private long restoreTriggeredAt;
+
+    private @Nullable Path captureFile;
+    private volatile @Nullable EventRecorder recorder;
+
+    private @Nullable EventReplayer replayer;
+    private @Nullable Thread replayThread;
+
+    private final Object linkLock = new Object();
+    private final Map<PhidgetChannelBinding, ScheduledFuture<?>> closeJobs = new HashMap<>();
+    private long unlinkGracePeriod = DEFAULT_UNLINK_GRACE_PERIOD_MS;
+
+    private @Nullable Path journalDirectory;
+    private int journalSegmentSize;
+    private int journalRetention;
+
+    private volatile @Nullable Storage<String> counterStorage;
+
+    private volatile @Nullable EventDispatcher dispatcher;
+
+    private volatile @Nullable PulseTimer pulseTimer;
+
+    private volatile StartupTimes startup = new StartupTimes();
+    private @Nullable StartupReport startupReport;
 
     public PhidgetsHandler(Thing thing, PhidgetsChannelFactory phidgetsChannelFactory) {
         super(thing);
+        this.serialNumber = getSerialNumber(thing);
+        this.phidgetsChannelFactory = phidgetsChannelFactory;
+    }
+
+    private static int getSerialNumber(Thing thing) {
         String serialNumber = thing.getProperties().get(THING_CONFIG_SERIAL_NUMBER);
         if (serialNumber != null && !serialNumber.trim().isEmpty()) {
-            this.serialNumber = Double.valueOf(serialNumber).intValue();
-        } else {
-            Number serialNumberNumber = (Number) thing.getConfiguration().get(THING_CONFIG_SERIAL_NUMBER);
-            this.serialNumber = serialNumberNumber.intValue();
+            return Double.valueOf(serialNumber).intValue();
         }
-        this.phidgetsChannelFactory = phidgetsChannelFactory;
-        this.currentStateChanger = new HashMap<>();
+        Number serialNumberNumber = (Number) thing.getConfiguration().get(THING_CONFIG_SERIAL_NUMBER);
+        return serialNumberNumber.intValue();
     }
 
-    private Phidget getPhidget(Channel channel) {
-        Integer channelNumber;
-        String channelNumberString = channel.getProperties().get(CHANNEL_PROPERTY_CHANNEL);
-        if (channelNumberString != null && !channelNumberString.isEmpty()) {
-            channelNumber = Double.valueOf(channelNumberString).intValue();
-        } else {
-            channelNumber = null;
+    private PhidgetChannelKey getChannelKey(Channel channel) {
+        int channelNumber = getIntProperty(channel, CHANNEL_PROPERTY_CHANNEL);
+        int portNumber = PhidgetChannelKey.NONE;
+        if (channel.getChannelTypeUID().getId().equals(CHANNEL_VINT_PORT)) {
+            portNumber = getIntProperty(channel, CHANNEL_PROPERTY_PORT);
+        }
+        return new PhidgetChannelKey(serialNumber, getChannelTypeId(channel), channelNumber, portNumber);
+    }
+
+    private SensorCoalescer createCoalescer(Channel channel, ChannelMetrics metrics,
+            List<ScheduledFuture<?>> jobs) {
+        ChannelUID channelUID = channel.getUID();
+        SensorCoalescer coalescer = SensorCoalescer.fromConfiguration(channel.getConfiguration(), value -> {
+            metrics.published.increment();
+            publishState(channelUID, new DecimalType(value));
+        });
+        long publishInterval = coalescer.getPublishInterval();
+        if (publishInterval > 0) {
+            jobs.add(scheduler.scheduleWithFixedDelay(coalescer::flush, publishInterval, publishInterval,
+                    TimeUnit.MILLISECONDS));
+        }
+        return coalescer;
+    }
+
+    private boolean isStatisticChannel(Channel channel) {
+        return CHANNEL_STATISTIC_ID.equals(channel.getChannelTypeUID().getId());
+    }
+
+    private boolean isCounterChannel(Channel channel) {
+        return CHANNEL_COUNTER_ID.equals(channel.getChannelTypeUID().getId());
+    }
+
+    /**
+     * @return true for channels computed from the values of a source channel on the same thing
+     */
+    private boolean isSourcedChannel(Channel channel) {
+        return isStatisticChannel(channel) || isCounterChannel(channel);
+    }
+
+    private boolean isDiagnosticChannel(Channel channel) {
+        return CHANNEL_DIAGNOSTIC_ID.equals(channel.getChannelTypeUID().getId());
+    }
+
+    private boolean isGroupChannel(Channel channel) {
+        return CHANNEL_OUTPUT_GROUP_ID.equals(channel.getChannelTypeUID().getId());
+    }
+
+    /**
+     * @return true for channels that are computed by the binding rather than backed by a phidget
+     */
+    private boolean isVirtualChannel(Channel channel) {
+        return isSourcedChannel(channel) || isDiagnosticChannel(channel) || isGroupChannel(channel);
+    }
+
+    private void scheduleDiagnostics() {
+        for (Channel channel : getThing().getChannels()) {
+            if (!isDiagnosticChannel(channel)) {
+                continue;
+            }
+            ChannelUID channelUID = channel.getUID();
+            DiagnosticMetric metric = DiagnosticMetric
+                    .fromConfig(channel.getConfiguration().get(CHANNEL_CONFIG_METRIC));
+            Object source = channel.getConfiguration().get(CHANNEL_CONFIG_SOURCE);
+            ChannelUID sourceUID = source == null || source.toString().trim().isEmpty() ? null
+                    : new ChannelUID(getThing().getUID(), source.toString().trim());
+            Number confRefresh = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_REFRESH_INTERVAL);
+            long refresh = confRefresh == null ? CHANNEL_DEFAULT_WINDOW : confRefresh.longValue();
+            logger.debug("[{}] Publishing {} of {} to {}", serialNumber, metric,
+                    sourceUID == null ? "all channels" : sourceUID.getId(), channelUID.getId());
+            publishJobs.add(scheduler.scheduleWithFixedDelay(() -> {
+                Collection<PhidgetChannelBinding> sources;
+                if (sourceUID == null) {
+                    sources = bindings.values();
+                } else {
+                    PhidgetChannelBinding binding = bindings.get(sourceUID);
+                    sources = binding == null ? Collections.emptyList() : Collections.singletonList(binding);
+                }
+                updateState(channelUID, new DecimalType(metric.of(sources, metrics)));
+            }, refresh, refresh, TimeUnit.MILLISECONDS));
         }
-        String channelTypeId = getChannelTypeId(channel);
-        PhidgetChannelRequest request = new PhidgetChannelRequest(serialNumber, channelTypeId, channelNumber);
-        phidgetsChannelFactory.getPhidgetChannel(request);
-        return request.getPhidget();
+    }
+
+    private SampleRingBuffer createSampleBuffer(Channel channel, List<Channel> statisticChannels,
+            List<ScheduledFuture<?>> jobs) {
+        Number bufferSize = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_BUFFER_SIZE);
+        SampleRingBuffer samples = new SampleRingBuffer(
+                bufferSize == null ? CHANNEL_DEFAULT_BUFFER_SIZE : bufferSize.intValue());
+        for (Channel statisticChannel : statisticChannels) {
+            ChannelUID channelUID = statisticChannel.getUID();
+            SampleStatistic statistic = SampleStatistic
+                    .fromConfig(statisticChannel.getConfiguration().get(CHANNEL_CONFIG_STATISTIC));
+            Number confWindow = (Number) statisticChannel.getConfiguration().get(CHANNEL_CONFIG_WINDOW);
+            long window = confWindow == null ? CHANNEL_DEFAULT_WINDOW : confWindow.longValue();
+            Number confRefresh = (Number) statisticChannel.getConfiguration().get(CHANNEL_CONFIG_REFRESH_INTERVAL);
+            long refresh = confRefresh == null ? window : confRefresh.longValue();
+            long windowNanos = TimeUnit.MILLISECONDS.toNanos(window);
+            Statistics stats = new Statistics();
+            logger.debug("[{}] Publishing {} of {} to {}", serialNumber, statistic, channel.getUID().getId(),
+                    channelUID.getId());
+            jobs.add(scheduler.scheduleWithFixedDelay(() -> {
+                samples.compute(System.nanoTime() - windowNanos, stats);
+                if (stats.count > 0 || statistic == SampleStatistic.COUNT) {
+                    updateState(channelUID, new DecimalType(statistic.of(stats)));
+                }
+            }, refresh, refresh, TimeUnit.MILLISECONDS));
+        }
+        return samples;
+    }
+
+    private int getIntProperty(Channel channel, String name) {
+        String value = channel.getProperties().get(name);
+        if (value != null && !value.isEmpty()) {
+            return Double.valueOf(value).intValue();
+        }
+        return PhidgetChannelKey.NONE;
     }
 
     private void disposePhidget(Channel channel) {
-        String channelNumberString = channel.getProperties().get(CHANNEL_PROPERTY_CHANNEL);
-        int channelNumber = Integer.valueOf(channelNumberString);
-        String channelTypeId = getChannelTypeId(channel);
-        phidgetsChannelFactory.disposePhidgetChannel(serialNumber, channelTypeId, channelNumber);
+        phidgetsChannelFactory.disposePhidgetChannel(getChannelKey(channel));
     }
 
+    /**
+     * Resolves the channel type that decides which phidget class backs the channel. VINT ports resolve by
+     * port mode, analog inputs by sensor type and relay outputs are digital outputs.
+     */
     private String getChannelTypeId(Channel channel) {
         String channelTypeId = channel.getChannelTypeUID().getId();
         if (channelTypeId.equals(CHANNEL_VINT_PORT)) {
             Number hubPortModeId = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_PORT_MODE);
             HubPortMode hubPortMode = HubPortMode.getEnum(hubPortModeId.intValue());
-            if (hubPortMode != null) {
-                switch (hubPortMode) {
-                    case DIGITAL_INPUT:
-                        channelTypeId = CHANNEL_DIGITAL_INPUT_ID;
-                        break;
-                    case DIGITAL_OUTPUT:
-                        channelTypeId = CHANNEL_DIGITAL_OUTPUT_ID;
-                        break;
-                    case VOLTAGE_INPUT:
-                        channelTypeId = CHANNEL_VOLTAGE_INPUT_ID;
-                        break;
-                    case VOLTAGE_RATIO_INPUT:
-                        channelTypeId = CHANNEL_VOLTAGE_RATIO_INPUT_ID;
-                        break;
-                }
+            PhidgetChannelAdapter adapter = hubPortMode == null ? null
+                    : PhidgetChannelAdapters.forHubPortMode(hubPortMode);
+            if (adapter != null) {
+                channelTypeId = adapter.getChannelTypeId();
             }
         } else if (channelTypeId.equals(CHANNEL_ANALOG_INPUT_ID)) {
             Number sensorType = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_SENSOR_TYPE);
@@ -121,278 +343,1457 @@ public class PhidgetsHandler extends BaseThingHandler {
 
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
-        try {
-            Phidget phidget = getPhidget(getThing().getChannel(channelUID.getId()));
-            if (phidget == null) {
+        long start = System.nanoTime();
+        PhidgetChannelBinding binding = bindings.get(channelUID);
+        if (binding == null) {
+            List<ChannelUID> members = groups.get(channelUID);
+            if (members != null) {
+                if (!(command instanceof RefreshType)) {
+                    handleGroupCommand(channelUID, members, command, start);
+                }
+            } else if (!(command instanceof RefreshType)) {
                 logger.warn("[{}] Phidget was not found for channel {} to handle command {}", serialNumber,
                         channelUID.getId(), command.toFullString());
-                return;
             }
-            if (command instanceof OnOffType) {
-                if (phidget instanceof DigitalOutput) {
-                    DigitalOutput out = (DigitalOutput) phidget;
-                    Boolean newState = null;
-                    switch ((OnOffType) command) {
-                        case ON:
-                            newState = true;
-                            break;
-                        case OFF:
-                            newState = false;
-                            break;
-                    }
-                    if (newState != null) {
-                        if (phidget.getAttached()) {
-                            logger.debug("[{}] Setting state for {} to {}", serialNumber, channelUID.getId(), newState);
-                            out.setState(newState);
-                            updateState(channelUID, newState ? OnOffType.ON : OnOffType.OFF);
-                        } else {
-                            updateStatus(ThingStatus.OFFLINE);
-                            out.open();
-                            logger.debug(
-                                    "[{}] Phidget was not attached, adding AttachListener to set state for {} to {} when attached",
-                                    serialNumber, channelUID.getId(), newState);
-                            boolean nextState = newState;
-                            AttachListener currentStateChanger = this.currentStateChanger.get(channelUID);
-                            if (currentStateChanger != null) {
-                                phidget.removeAttachListener(currentStateChanger);
-                            }
-                            currentStateChanger = new AttachListener() {
-                                @Override
-                                public void onAttach(AttachEvent arg0) {
-                                    logger.debug("[{}] Executing delayed command for {} setting state {}", serialNumber,
-                                            channelUID.getId(), nextState);
-                                    handleCommand(channelUID, command);
-                                    phidget.removeAttachListener(this);
-                                }
-                            };
-                            this.currentStateChanger.put(channelUID, currentStateChanger);
-                            phidget.addAttachListener(currentStateChanger);
-                        }
-                    }
-                }
-            } else if (command instanceof RefreshType) {
+            return;
+        }
+        PhidgetChannel phidget = binding.getPhidget();
+        if (phidget == null) {
+            logger.debug("[{}] Channel {} has no phidget, ignoring command {}", serialNumber, channelUID.getId(),
+                    command);
+            return;
+        }
+        ChannelMetrics metrics = binding.getMetrics();
+        metrics.commandAcquire.recordSince(start);
+        try {
+            if (command instanceof RefreshType) {
                 if (phidget.getAttached()) {
                     logger.debug("[{}] Refreshing channel {}", serialNumber, channelUID.getId());
-                    if (phidget instanceof VoltageInput) {
-                        updateState(channelUID, new DecimalType(((VoltageInput) phidget).getVoltage()));
-                    } else if (phidget instanceof VoltageRatioInput) {
-                        updateState(channelUID, new DecimalType(((VoltageRatioInput) phidget).getVoltageRatio()));
-                    } else if (phidget instanceof DigitalInput) {
-                        updateState(channelUID, ((DigitalInput) phidget).getState() ? OnOffType.ON : OnOffType.OFF);
-                    } else if (phidget instanceof DigitalOutput) {
-                        updateState(channelUID, ((DigitalOutput) phidget).getState() ? OnOffType.ON : OnOffType.OFF);
+                    State state = phidget.read();
+                    Calibration calibration = binding.getCalibration();
+                    if (state instanceof DecimalType && calibration != Calibration.NONE) {
+                        state = new DecimalType(calibration.apply(((DecimalType) state).doubleValue()));
+                    }
+                    if (state != null) {
+                        metrics.published.increment();
+                        publishState(channelUID, state);
                     }
                 } else {
-                    phidget.open();
+                    ensureOpen(binding, phidget);
                     logger.debug("[{}] Channel {} was not attached, will refresh state when attached", serialNumber,
                             channelUID.getId());
                 }
+            } else {
+                sendCommand(binding, phidget, command);
             }
         } catch (PhidgetException e) {
-            logger.error("[{}] Problem when handling command {} for channel {}", command.toFullString(),
+            logger.error("[{}] Problem when handling command {} for channel {}", serialNumber, command.toFullString(),
                     channelUID.getId(), e);
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
+            setStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, null);
+        }
+    }
+
+    /**
+     * Writes the command to the phidget if it is attached, or keeps it to be written on attach.
+     */
+    private void sendCommand(PhidgetChannelBinding binding, PhidgetChannel phidget, Command command)
+            throws PhidgetException {
+        long pulseWidth = getPulseWidth(binding, command);
+        if (pulseWidth > 0) {
+            pulse(binding, phidget, pulseWidth);
+            return;
+        }
+        PulseTimer pulseTimer = this.pulseTimer;
+        if (pulseTimer != null && binding.getAdapter().isPulsable() && pulseTimer.cancel(binding)
+                && logger.isDebugEnabled()) {
+            logger.debug("[{}] Command {} ends the pulse of channel {}", serialNumber, command,
+                    binding.getUID().getId());
+        }
+        if (phidget.getAttached()) {
+            writeCommand(binding, phidget, command);
+        } else if (binding.getAdapter().isRestorable(command)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("[{}] Phidget was not attached, state for {} will be set to {} when attached",
+                        serialNumber, binding.getUID().getId(), command);
+            }
+            pendingCommands.put(binding, command);
+            ensureOpen(binding, phidget);
+            if (binding.isAttached()) {
+                scheduleRestore();
+            }
+        }
+    }
+
+    /**
+     * @return the milliseconds the command switches the output on for, or zero if it is no pulse
+     */
+    private long getPulseWidth(PhidgetChannelBinding binding, Command command) {
+        if (!binding.getAdapter().isPulsable()) {
+            return 0;
+        }
+        if (command instanceof DecimalType) {
+            return ((DecimalType) command).longValue();
+        }
+        Object autoOff = binding.getChannel().getConfiguration().get(CHANNEL_CONFIG_AUTO_OFF);
+        return command == OnOffType.ON && autoOff instanceof Number ? ((Number) autoOff).longValue() : 0;
+    }
+
+    /**
+     * Switches the output on and has the pulse timer switch it off after the given milliseconds. A pulse is
+     * not kept for a detached output, as it would start at some arbitrary time later.
+     */
+    private void pulse(PhidgetChannelBinding binding, PhidgetChannel phidget, long millis) throws PhidgetException {
+        PulseTimer pulseTimer = this.pulseTimer;
+        if (pulseTimer == null || !binding.isAttached()) {
+            logger.debug("[{}] Channel {} cannot pulse now, ignoring pulse of {} ms", serialNumber,
+                    binding.getUID().getId(), millis);
+            return;
+        }
+        long width = TimeUnit.MILLISECONDS.toNanos(millis);
+        long on = writeCommand(binding, phidget, OnOffType.ON);
+        pulseTimer.schedule(binding, on + width, () -> endPulse(binding.getUID(), on, width));
+        logger.debug("[{}] Pulsing channel {} for {} ms", serialNumber, binding.getUID().getId(), millis);
+    }
+
+    /**
+     * Switches the output off at the end of a pulse. If the output is detached, or its channel was reopened
+     * meanwhile, it is switched off as soon as it attaches. Closing an unlinked or disposed channel resets
+     * the output anyway.
+     */
+    private void endPulse(ChannelUID channelUID, long on, long width) {
+        PhidgetChannelBinding binding = bindings.get(channelUID);
+        if (binding == null) {
+            return;
+        }
+        PhidgetChannel phidget = binding.getPhidget();
+        if (phidget != null && binding.isAttached()) {
+            try {
+                long off = writeCommand(binding, phidget, OnOffType.OFF);
+                binding.getMetrics().pulseJitter.record(Math.abs(off - on - width));
+                return;
+            } catch (PhidgetException e) {
+                logger.warn("[{}] Unable to end the pulse of channel {}, retrying when attached", serialNumber,
+                        channelUID.getId(), e);
+            }
+        }
+        logger.debug("[{}] Channel {} was not attached at the end of its pulse, will switch off when attached",
+                serialNumber, channelUID.getId());
+        binding.getMetrics().pulsesDeferred.increment();
+        pendingCommands.put(binding, OnOffType.OFF);
+        if (binding.isAttached()) {
+            scheduleRestore();
+        }
+    }
+
+    /**
+     * Sends the command to every member of an output group. The members of each device, that is of the thing
+     * itself or of one VINT hub port, are written back to back, while the devices are written in parallel.
+     * The group publishes the command once every member has been written.
+     */
+    private void handleGroupCommand(ChannelUID channelUID, List<ChannelUID> members, Command command, long start) {
+        if (!(command instanceof OnOffType)) {
+            logger.debug("[{}] Group {} only takes on and off, ignoring {}", serialNumber, channelUID.getId(),
+                    command);
+            return;
+        }
+        Map<Integer, List<PhidgetChannelBinding>> devices = new LinkedHashMap<>();
+        for (ChannelUID member : members) {
+            PhidgetChannelBinding binding = bindings.get(member);
+            if (binding != null) {
+                devices.computeIfAbsent(binding.getKey().getHubPort(), port -> new ArrayList<>()).add(binding);
+            }
+        }
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        List<PhidgetChannelBinding> first = null;
+        for (List<PhidgetChannelBinding> device : devices.values()) {
+            if (first == null) {
+                first = device;
+            } else {
+                writes.add(CompletableFuture.runAsync(() -> sendGroupCommand(channelUID, device, command), scheduler));
+            }
+        }
+        if (first != null) {
+            // the calling thread takes the first device instead of waiting for the others
+            sendGroupCommand(channelUID, first, command);
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[writes.size()])).whenComplete((v, e) -> {
+            long nanos = System.nanoTime() - start;
+            metrics.groupCommand.record(nanos);
+            logger.debug("[{}] Group {} set {} outputs of {} devices to {} in {} us", serialNumber,
+                    channelUID.getId(), members.size(), devices.size(), command, TimeUnit.NANOSECONDS.toMicros(nanos));
+            updateState(channelUID, (OnOffType) command);
+        });
+    }
+
+    private void sendGroupCommand(ChannelUID channelUID, List<PhidgetChannelBinding> device, Command command) {
+        for (PhidgetChannelBinding binding : device) {
+            PhidgetChannel phidget = binding.getPhidget();
+            if (phidget == null) {
+                logger.debug("[{}] Member {} of group {} has no phidget", serialNumber, binding.getUID().getId(),
+                        channelUID.getId());
+                continue;
+            }
+            try {
+                sendCommand(binding, phidget, command);
+            } catch (PhidgetException e) {
+                logger.error("[{}] Problem when setting member {} of group {} to {}", serialNumber,
+                        binding.getUID().getId(), channelUID.getId(), command, e);
+                setStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, null);
+            }
         }
     }
 
+    /**
+     * Records all channel events of this thing to the given file from the next initialization on.
+     */
+    public void setCaptureFile(@Nullable Path captureFile) {
+        this.captureFile = captureFile;
+    }
+
+    /**
+     * Replays the events of the given replayer once the channels are set up, from the next initialization on.
+     * The handler has to be created with a channel factory on the channels of the replayer, which stand in for
+     * the devices.
+     */
+    public void setReplayer(@Nullable EventReplayer replayer) {
+        this.replayer = replayer;
+    }
+
+    /**
+     * Sets how long a channel stays open after its last link was removed.
+     */
+    public void setUnlinkGracePeriod(long unlinkGracePeriod) {
+        this.unlinkGracePeriod = unlinkGracePeriod;
+    }
+
+    /**
+     * Keeps the raw samples of channels with the journal enabled in the given directory, from the next
+     * initialization on.
+     *
+     * @param segmentSize the size of a segment file in bytes
+     * @param retention the number of segment files kept per channel
+     */
+    public void setJournal(@Nullable Path journalDirectory, int segmentSize, int retention) {
+        this.journalDirectory = journalDirectory;
+        this.journalSegmentSize = segmentSize;
+        this.journalRetention = retention;
+    }
+
+    /**
+     * Publishes the states of the device channels through a dispatcher on the given pool instead of on the
+     * phidget callback threads, or directly again with a null pool.
+     *
+     * @param queueSize the number of states queued for this thing before the overflow policy applies
+     */
+    public void setDispatcher(@Nullable Executor executor, int queueSize, OverflowPolicy policy) {
+        this.dispatcher = executor == null ? null
+                : new EventDispatcher(executor, queueSize, policy, this::updateState, metrics);
+    }
+
+    public @Nullable EventDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Sets the timer that ends the pulses of the outputs. Without one, pulse and auto-off commands are
+     * ignored.
+     */
+    public void setPulseTimer(@Nullable PulseTimer pulseTimer) {
+        this.pulseTimer = pulseTimer;
+    }
+
+    /**
+     * Sets the storage the pulse counts are kept in across restarts, keyed by channel UID.
+     */
+    public void setCounterStorage(@Nullable Storage<String> counterStorage) {
+        this.counterStorage = counterStorage;
+    }
+
+    /**
+     * Sets the report the startup times of this thing are added to.
+     */
+    public void setStartupReport(@Nullable StartupReport startupReport) {
+        this.startupReport = startupReport;
+    }
+
+    /**
+     * Returns the phidgets of all linked channels and sets them up in the background, so initialization does not
+     * hold up the framework while phidgets are created and opened. The status stays UNKNOWN until the channels
+     * attach. If the phidgets are not all acquired within {@link PhidgetsChannelFactory#ACQUIRE_TIMEOUT_MS}, the
+     * acquired ones are set up without waiting for the others.
+     */
     @Override
     public void initialize() {
         logger.debug("[{}] Initialize", serialNumber);
+        phidgetsChannelFactory.addHandler(getThing().getUID(), this);
+        startCapture();
+
+        StartupTimes startup = new StartupTimes();
+        this.startup = startup;
+        channelsSetUp = false;
+        attachedChannels.set(0);
+        missingChannels.clear();
+        Map<ChannelUID, PhidgetChannelBinding> bindings = createBindings(getDeviceChannels());
+        this.bindings = bindings;
+        Set<PhidgetChannelKey> keys = new HashSet<>();
+        for (PhidgetChannelBinding binding : bindings.values()) {
+            if (isNeeded(binding)) {
+                keys.add(binding.getKey());
+            }
+        }
+        logger.debug("[{}] Opening {} of {} channels, the others are not linked", serialNumber, keys.size(),
+                bindings.size());
+        setStatus(ThingStatus.UNKNOWN, ThingStatusDetail.NONE, null);
+        AtomicBoolean setUp = new AtomicBoolean();
+        ScheduledFuture<?> timeout = scheduler.schedule(() -> {
+            if (setUp.compareAndSet(false, true)) {
+                setUpAcquiredChannels(bindings, keys, startup);
+            }
+        }, PhidgetsChannelFactory.ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        publishJobs.add(timeout);
+        phidgetsChannelFactory.getPhidgetChannels(keys).whenCompleteAsync((phidgets, error) -> {
+            timeout.cancel(false);
+            publishJobs.remove(timeout);
+            if (setUp.compareAndSet(false, true)) {
+                setUpChannels(bindings, keys, phidgets, startup);
+            }
+        }, scheduler);
+    }
 
+    /**
+     * Sets up the channels whose phidget was acquired when the acquisition timed out. The others are marked
+     * missing, which keeps the thing degraded, and are set up on their own once their phidget is acquired.
+     */
+    private void setUpAcquiredChannels(Map<ChannelUID, PhidgetChannelBinding> bindings, Set<PhidgetChannelKey> keys,
+            StartupTimes startup) {
+        if (this.bindings != bindings) {
+            return;
+        }
+        Map<PhidgetChannelKey, PhidgetChannel> phidgets = new HashMap<>();
+        Map<PhidgetChannelKey, CompletableFuture<PhidgetChannel>> pending = new HashMap<>();
+        for (PhidgetChannelKey key : keys) {
+            CompletableFuture<PhidgetChannel> future = phidgetsChannelFactory.getPhidgetChannel(key);
+            if (!future.isDone()) {
+                pending.put(key, future);
+            } else if (!future.isCompletedExceptionally() && future.join() != null) {
+                phidgets.put(key, future.join());
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        for (PhidgetChannelBinding binding : bindings.values()) {
+            CompletableFuture<PhidgetChannel> future = pending.get(binding.getKey());
+            if (future == null) {
+                continue;
+            }
+            missing.add(binding.getUID().getId());
+            missingChannels.add(binding);
+            future.whenCompleteAsync((phidget, error) -> {
+                missingChannels.remove(binding);
+                if (this.bindings.get(binding.getUID()) != binding) {
+                    // disposed or reopened meanwhile
+                    return;
+                }
+                logger.debug("[{}] Acquired channel {} late", serialNumber, binding.getUID().getId());
+                if (isNeeded(binding)) {
+                    openChannel(binding, error == null ? phidget : null, null);
+                }
+                scheduleStatusUpdate();
+            }, scheduler);
+        }
+        if (!missing.isEmpty()) {
+            logger.warn("[{}] Phidget acquisition did not complete within {} ms, setting up without channels {}",
+                    serialNumber, PhidgetsChannelFactory.ACQUIRE_TIMEOUT_MS, missing);
+        }
+        setUpChannels(bindings, keys, phidgets, startup);
+    }
+
+    private void setUpChannels(Map<ChannelUID, PhidgetChannelBinding> bindings, Set<PhidgetChannelKey> keys,
+            @Nullable Map<PhidgetChannelKey, PhidgetChannel> phidgets, StartupTimes startup) {
+        if (this.bindings != bindings) {
+            // disposed or initialized again meanwhile
+            return;
+        }
+        startup.acquired();
+        metrics.acquisitionWait.record(startup.getAcquireNanos());
+        updateProperty(THING_PROPERTY_ACQUISITION_WAIT,
+                String.valueOf(TimeUnit.NANOSECONDS.toMillis(startup.getAcquireNanos())));
+        if (phidgets == null) {
+            logger.debug("[{}] Phidget acquisition did not complete", serialNumber);
+            phidgets = Collections.emptyMap();
+        }
+        for (PhidgetChannelBinding binding : bindings.values()) {
+            if (keys.contains(binding.getKey())) {
+                openChannel(binding, phidgets.get(binding.getKey()), startup);
+            }
+        }
+        startup.setUp();
+        channelsSetUp = true;
+        logger.debug("[{}] Set up {} channels: {}", serialNumber, keys.size(), startup);
+        StartupReport startupReport = this.startupReport;
+        if (startupReport != null) {
+            startupReport.record(getThing().getUID(), startup);
+        }
+        scheduleStatusUpdate();
+        startReplay();
+    }
+
+    /**
+     * @return the binding of the given channel, or null if the channel is not bound
+     */
+    public @Nullable PhidgetChannelBinding getBinding(ChannelUID channelUID) {
+        return bindings.get(channelUID);
+    }
+
+    public Collection<PhidgetChannelBinding> getBindings() {
+        return bindings.values();
+    }
+
+    public ThingMetrics getMetrics() {
+        return metrics;
+    }
+
+    public StartupTimes getStartupTimes() {
+        return startup;
+    }
+
+    private void startCapture() {
+        Path captureFile = this.captureFile;
+        if (captureFile == null) {
+            return;
+        }
         try {
-            NetBase.enableServerDiscovery(ServerType.DEVICE_REMOTE);
-        } catch (PhidgetException e) {
-            logger.warn("Unable to enable server discovery for Phidget22 Server"
-                    + ", is libavahi-client (debian) or avahi-devel (rhel) missing?", e);
+            EventRecorder recorder = new EventRecorder(captureFile);
+            this.recorder = recorder;
+            publishJobs.add(scheduler.scheduleWithFixedDelay(recorder::flush, 1, 1, TimeUnit.SECONDS));
+            logger.info("[{}] Recording events to {}", serialNumber, captureFile);
+        } catch (IOException e) {
+            logger.warn("[{}] Unable to record events to {}", serialNumber, captureFile, e);
+        }
+    }
+
+    private void startReplay() {
+        EventReplayer replayer = this.replayer;
+        if (replayer == null) {
+            return;
         }
+        Path replayFile = replayer.getFile();
+        Thread replayThread = new Thread(() -> {
+            try {
+                long events = replayer.replay(getThing().getUID());
+                logger.info("[{}] Replayed {} events from {}", serialNumber, events, replayFile);
+            } catch (IOException e) {
+                logger.warn("[{}] Unable to replay events from {}", serialNumber, replayFile, e);
+                setStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+            }
+        }, "phidgets-replay-" + getThing().getUID().getId());
+        replayThread.setDaemon(true);
+        this.replayThread = replayThread;
+        replayThread.start();
+    }
+
+    private void onAttach(PhidgetChannelBinding binding) {
+        logger.debug("[{}] Attached for channel {}", serialNumber, binding.getUID().getId());
+        EventRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.attach(binding.getUID().getId());
+        }
+        binding.getMetrics().attaches.increment();
+        startup.attached();
+        if (binding.setAttached(true)) {
+            attachedChannels.incrementAndGet();
+            scheduleStatusUpdate();
+        }
+        if (!pendingCommands.isEmpty()) {
+            scheduleRestore();
+        }
+        PhidgetChannel phidget = binding.getPhidget();
+        if (phidget != null) {
+            configurePhidget(binding, phidget);
+        }
+    }
+
+    private void onDetach(PhidgetChannelBinding binding) {
+        logger.debug("[{}] Detached for channel {}", serialNumber, binding.getUID().getId());
+        EventRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.detach(binding.getUID().getId());
+        }
+        binding.getMetrics().detaches.increment();
+        Interlock[] interlocks = this.interlocks.get(binding.getUID());
+        if (interlocks != null) {
+            for (Interlock interlock : interlocks) {
+                interlock.reset();
+            }
+        }
+        PulseCounter counter = binding.getCounter();
+        if (counter != null) {
+            counter.reset();
+        }
+        if (binding.setAttached(false)) {
+            attachedChannels.decrementAndGet();
+            scheduleStatusUpdate();
+        }
+    }
+
+    private void onSensorChange(PhidgetChannelBinding binding, double value) {
+        long start = System.nanoTime();
+        ChannelMetrics metrics = binding.getMetrics();
+        metrics.received.increment();
+        Interlock[] interlocks = this.interlocks.get(binding.getUID());
+        if (interlocks != null) {
+            double calibrated = binding.getCalibration().apply(value);
+            for (Interlock interlock : interlocks) {
+                if (interlock.onValue(calibrated)) {
+                    trip(interlock, start);
+                }
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("[{}] Sensor changed for {} to {}", serialNumber, binding.getUID().getId(), value);
+        }
+        EventRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.sensor(binding.getUID().getId(), value);
+        }
+        binding.onSample(value);
+        metrics.listener.recordSince(start);
+    }
 
+    private void onStateChange(PhidgetChannelBinding binding, boolean state) {
+        long start = System.nanoTime();
+        ChannelMetrics metrics = binding.getMetrics();
+        metrics.received.increment();
+        Interlock[] interlocks = this.interlocks.get(binding.getUID());
+        if (interlocks != null) {
+            for (Interlock interlock : interlocks) {
+                if (interlock.onState(state)) {
+                    trip(interlock, start);
+                }
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("[{}] Digital input changed for {} to {}", serialNumber, binding.getUID().getId(), state);
+        }
+        EventRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.state(binding.getUID().getId(), state);
+        }
+        PulseCounter counter = binding.getCounter();
+        if (counter != null) {
+            counter.onState(state);
+            metrics.listener.recordSince(start);
+            return;
+        }
+        metrics.published.increment();
+        publishState(binding.getUID(), PhidgetChannelAdapter.toState(state));
+        metrics.listener.recordSince(start);
+    }
+
+    private Map<Channel, PhidgetChannelKey> getDeviceChannels() {
+        Map<Channel, PhidgetChannelKey> keys = new LinkedHashMap<>();
+        for (Channel channel : getThing().getChannels()) {
+            if (!isVirtualChannel(channel)) {
+                keys.put(channel, getChannelKey(channel));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Creates the bindings for the given channels, without phidgets. Phidgets are opened for the channels
+     * that are linked.
+     */
+    private Map<ChannelUID, PhidgetChannelBinding> createBindings(Map<Channel, PhidgetChannelKey> keys) {
+        Map<ChannelUID, PhidgetChannelBinding> newBindings = new HashMap<>();
+        for (Map.Entry<Channel, PhidgetChannelKey> entry : keys.entrySet()) {
+            newBindings.put(entry.getKey().getUID(), createBinding(entry.getKey(), entry.getValue()));
+        }
+        scheduleDiagnostics();
+        scheduleCounters(newBindings);
+        groups = resolveGroups(newBindings);
+        resolveInterlocks(newBindings);
+        return newBindings;
+    }
+
+    /**
+     * Resolves the members of the output group channels, given as a list of channel ids or as a bit mask of
+     * the output numbers of the device.
+     */
+    private Map<ChannelUID, List<ChannelUID>> resolveGroups(Map<ChannelUID, PhidgetChannelBinding> newBindings) {
+        Map<ChannelUID, List<ChannelUID>> newGroups = new HashMap<>();
+        for (Channel channel : getThing().getChannels()) {
+            if (!isGroupChannel(channel)) {
+                continue;
+            }
+            Set<ChannelUID> members = new LinkedHashSet<>();
+            Object memberIds = channel.getConfiguration().get(CHANNEL_CONFIG_MEMBERS);
+            if (memberIds != null) {
+                for (String id : memberIds.toString().split("[,\\s]+")) {
+                    if (id.isEmpty()) {
+                        continue;
+                    }
+                    PhidgetChannelBinding binding = newBindings.get(new ChannelUID(getThing().getUID(), id));
+                    if (binding != null && binding.getChannelTypeId().equals(CHANNEL_DIGITAL_OUTPUT_ID)) {
+                        members.add(binding.getUID());
+                    } else {
+                        logger.warn("[{}] Member {} of group {} is not an output of this thing", serialNumber, id,
+                                channel.getUID().getId());
+                    }
+                }
+            }
+            Number mask = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_MASK);
+            if (mask != null && mask.longValue() != 0) {
+                for (PhidgetChannelBinding binding : newBindings.values()) {
+                    PhidgetChannelKey key = binding.getKey();
+                    if (binding.getChannelTypeId().equals(CHANNEL_DIGITAL_OUTPUT_ID) && !key.isHubPort()
+                            && key.hasChannel() && key.getChannel() < Long.SIZE
+                            && (mask.longValue() & 1L << key.getChannel()) != 0) {
+                        members.add(binding.getUID());
+                    }
+                }
+            }
+            logger.debug("[{}] Group {} has members {}", serialNumber, channel.getUID().getId(), members);
+            newGroups.put(channel.getUID(), new ArrayList<>(members));
+        }
+        return newGroups;
+    }
+
+    /**
+     * Resolves the interlocks of the thing configuration, skipping those whose input is not a channel of this
+     * thing of the right kind, or whose output is not an output of this thing. Outputs of other things are
+     * resolved when the interlock trips, as their things may not be initialized yet, and are kept open by
+     * their handlers from now on.
+     */
+    private void resolveInterlocks(Map<ChannelUID, PhidgetChannelBinding> newBindings) {
+        List<Interlock> definitions;
         try {
-            NetBase.enableServerDiscovery(ServerType.WWWREMOTE);
-        } catch (PhidgetException e) {
-            logger.warn("Unable to enable server discovery for Phidget22 Web server"
-                    + ", is libavahi-client (debian) or avahi-devel (rhel) missing?", e);
+            definitions = Interlock.fromConfig(getThing().getUID(),
+                    getThing().getConfiguration().get(THING_CONFIG_INTERLOCKS));
+        } catch (IllegalArgumentException e) {
+            logger.warn("[{}] Invalid interlocks, none are active: {}", serialNumber, e.getMessage());
+            definitions = Collections.emptyList();
+        }
+        Map<ChannelUID, List<Interlock>> bySource = new HashMap<>();
+        Set<ChannelUID> channels = new HashSet<>();
+        Set<ChannelUID> remoteOutputs = new HashSet<>();
+        for (Interlock interlock : definitions) {
+            PhidgetChannelBinding source = newBindings.get(interlock.getSource());
+            PhidgetChannelBinding target = newBindings.get(interlock.getTarget());
+            boolean remote = interlock.getRemoteThing() != null;
+            if (source == null || (interlock.isDigital() ? !source.getChannelTypeId().equals(CHANNEL_DIGITAL_INPUT_ID)
+                    : !source.getAdapter().isSensor())) {
+                logger.warn("[{}] Input of interlock {} is not a matching input of this thing", serialNumber,
+                        interlock);
+            } else if (!remote && (target == null || !target.getChannelTypeId().equals(CHANNEL_DIGITAL_OUTPUT_ID))) {
+                logger.warn("[{}] Output of interlock {} is not an output of this thing", serialNumber, interlock);
+            } else {
+                logger.debug("[{}] Interlock {}", serialNumber, interlock);
+                bySource.computeIfAbsent(interlock.getSource(), uid -> new ArrayList<>()).add(interlock);
+                channels.add(interlock.getSource());
+                (remote ? remoteOutputs : channels).add(interlock.getTarget());
+            }
+        }
+        phidgetsChannelFactory.setInterlockOutputs(getThing().getUID(), remoteOutputs);
+        for (ChannelUID output : remoteOutputs) {
+            PhidgetsHandler handler = phidgetsChannelFactory.getHandler(output.getThingUID());
+            if (handler != null) {
+                handler.keepOpen(output);
+            }
+        }
+        Map<ChannelUID, Interlock[]> newInterlocks = new HashMap<>();
+        for (Map.Entry<ChannelUID, List<Interlock>> entry : bySource.entrySet()) {
+            newInterlocks.put(entry.getKey(), entry.getValue().toArray(new Interlock[entry.getValue().size()]));
+        }
+        interlocks = newInterlocks;
+        interlockChannels = channels;
+    }
+
+    /**
+     * Switches the output of a triggered interlock right away, the same way a command would: an output with
+     * auto-off is pulsed, switching an output off ends its pulse and a detached output takes the state once
+     * it attaches. Switching on an output in the middle of a pulse leaves the pulse to end as scheduled.
+     * Switching an output without auto-off allocates nothing on the way to the write, as this runs on the
+     * phidget callback thread of the input.
+     *
+     * @param start the {@link System#nanoTime()} the input event was received at
+     */
+    private void trip(Interlock interlock, long start) {
+        ThingUID remoteThing = interlock.getRemoteThing();
+        PhidgetsHandler handler = remoteThing == null ? this : phidgetsChannelFactory.getHandler(remoteThing);
+        if (handler == null) {
+            metrics.interlocksMissed.increment();
+            logger.debug("[{}] Thing of the output of interlock {} is not initialized", serialNumber, interlock);
+            return;
+        }
+        handler.switchOutput(interlock, start, metrics);
+    }
+
+    /**
+     * Switches the output of an interlock of this or another thing.
+     *
+     * @param interlockMetrics the metrics of the thing of the interlock
+     */
+    private void switchOutput(Interlock interlock, long start, ThingMetrics interlockMetrics) {
+        PhidgetChannelBinding target = bindings.get(interlock.getTarget());
+        if (target == null || !target.getChannelTypeId().equals(CHANNEL_DIGITAL_OUTPUT_ID)) {
+            interlockMetrics.interlocksMissed.increment();
+            logger.debug("[{}] Output of interlock {} is not an output of this thing", serialNumber, interlock);
+            return;
+        }
+        PhidgetChannel phidget = target.getPhidget();
+        OnOffType state = interlock.getState();
+        boolean attached = phidget != null && target.isAttached();
+        if (!attached) {
+            interlockMetrics.interlocksMissed.increment();
+        }
+        if (phidget == null) {
+            if (state != null && getPulseWidth(target, state) == 0) {
+                // the output takes the state of the interlock once it is opened and attaches
+                pendingCommands.put(target, state);
+            }
+            return;
+        }
+        if (state == null && !attached) {
+            // a detached output has no state to toggle
+            return;
         }
         try {
-            NetBase.enableServerDiscovery(ServerType.SBC);
+            if (state == null) {
+                state = phidget.read() == OnOffType.ON ? OnOffType.OFF : OnOffType.ON;
+            }
+            PulseTimer pulseTimer = this.pulseTimer;
+            if (state == OnOffType.ON && getPulseWidth(target, state) == 0 && pulseTimer != null
+                    && pulseTimer.isScheduled(target)) {
+                // the output is on for a pulse already, which still has to switch it off at its end
+                interlockMetrics.interlockReaction.recordSince(start);
+                return;
+            }
+            sendCommand(target, phidget, state);
+            if (attached) {
+                interlockMetrics.interlockReaction.recordSince(start);
+            }
         } catch (PhidgetException e) {
-            logger.warn("Unable to enable server discovery for Phidget SBC"
-                    + ", is libavahi-client (debian) or avahi-devel (rhel) missing?", e);
+            interlockMetrics.interlocksMissed.increment();
+            logger.warn("[{}] Unable to switch output of interlock {}", serialNumber, interlock, e);
         }
+    }
 
-        for (Channel channel : getThing().getChannels()) {
-            logger.debug("[{}] Setting up phidget for channel {}", serialNumber, channel.getUID().getId());
+    private PhidgetChannelBinding createBinding(Channel channel, PhidgetChannelKey key) {
+        return createBinding(channel, key, new ChannelMetrics());
+    }
 
-            Phidget phidget = getPhidget(channel);
-            if (phidget == null) {
-                logger.debug("[{}] No phidget, ignoring {}", serialNumber, channel.getUID().getId());
+    private PhidgetChannelBinding createBinding(Channel channel, PhidgetChannelKey key, ChannelMetrics metrics) {
+        PhidgetChannelAdapter adapter = phidgetsChannelFactory.getAdapter(key.getChannelTypeId());
+        SensorCoalescer coalescer = null;
+        SampleRingBuffer samples = null;
+        SampleJournal journal = null;
+        Calibration calibration = Calibration.NONE;
+        PulseCounter counter = null;
+        if (key.getChannelTypeId().equals(CHANNEL_DIGITAL_INPUT_ID)
+                && Boolean.TRUE.equals(channel.getConfiguration().get(CHANNEL_CONFIG_COUNTER))) {
+            counter = createCounter(channel);
+        } else if (adapter.isSensor()) {
+            List<ScheduledFuture<?>> jobs = new ArrayList<>();
+            coalescer = createCoalescer(channel, metrics, jobs);
+            List<Channel> statistics = new ArrayList<>();
+            for (Channel statisticChannel : getThing().getChannels()) {
+                if (isStatisticChannel(statisticChannel) && channel.getUID().getId()
+                        .equals(statisticChannel.getConfiguration().get(CHANNEL_CONFIG_SOURCE))) {
+                    statistics.add(statisticChannel);
+                }
+            }
+            if (!statistics.isEmpty()) {
+                samples = createSampleBuffer(channel, statistics, jobs);
+            }
+            journal = createJournal(channel, jobs);
+            channelJobs.put(channel.getUID(), jobs);
+            try {
+                calibration = Calibration.fromConfig(channel.getConfiguration().get(CHANNEL_CONFIG_CALIBRATION));
+            } catch (IllegalArgumentException e) {
+                logger.warn("[{}] Invalid calibration for channel {}, publishing uncalibrated values: {}",
+                        serialNumber, channel.getUID().getId(), e.getMessage());
+            }
+        }
+        return new PhidgetChannelBinding(channel, key, adapter, coalescer, samples, journal, calibration, counter,
+                metrics);
+    }
+
+    private PulseCounter createCounter(Channel channel) {
+        PulseCounter.Edge edge = PulseCounter.Edge
+                .fromConfig(channel.getConfiguration().get(CHANNEL_CONFIG_COUNTER_EDGE));
+        long count = 0;
+        Storage<String> counterStorage = this.counterStorage;
+        String stored = counterStorage == null ? null : counterStorage.get(channel.getUID().getAsString());
+        if (stored != null) {
+            try {
+                count = Long.parseLong(stored);
+            } catch (NumberFormatException e) {
+                logger.warn("[{}] Ignoring invalid stored count {} of channel {}", serialNumber, stored,
+                        channel.getUID().getId());
+            }
+        }
+        PulseCounter counter = new PulseCounter(edge, count);
+        List<ScheduledFuture<?>> jobs = new ArrayList<>();
+        jobs.add(scheduler.scheduleWithFixedDelay(() -> persistCount(channel.getUID(), counter),
+                COUNTER_PERSIST_INTERVAL_MS, COUNTER_PERSIST_INTERVAL_MS, TimeUnit.MILLISECONDS));
+        channelJobs.put(channel.getUID(), jobs);
+        logger.debug("[{}] Counting {} edges of {} from {}", serialNumber, edge, channel.getUID().getId(), count);
+        return counter;
+    }
+
+    private void persistCount(ChannelUID channelUID, PulseCounter counter) {
+        Storage<String> counterStorage = this.counterStorage;
+        if (counterStorage == null) {
+            return;
+        }
+        String count = Long.toString(counter.getCount());
+        if (!count.equals(counterStorage.get(channelUID.getAsString()))) {
+            counterStorage.put(channelUID.getAsString(), count);
+        }
+    }
+
+    private void persistCount(PhidgetChannelBinding binding) {
+        PulseCounter counter = binding.getCounter();
+        if (counter != null) {
+            persistCount(binding.getUID(), counter);
+        }
+    }
+
+    /**
+     * Publishes the count, or the frequency of counted edges over the refresh interval, of the digital inputs
+     * the counter channels are sourced from.
+     */
+    private void scheduleCounters(Map<ChannelUID, PhidgetChannelBinding> newBindings) {
+        for (Channel channel : getThing().getChannels()) {
+            if (!isCounterChannel(channel)) {
                 continue;
             }
-            phidget.addAttachListener((event) -> {
-                logger.debug("[{}] Attached for channel {}", serialNumber, channel.getUID().getId());
-                updateStatus(ThingStatus.ONLINE);
-            });
-            phidget.addDetachListener((event) -> {
-                logger.debug("[{}] Detached for channel {}", serialNumber, channel.getUID().getId());
-                updateStatus(ThingStatus.OFFLINE);
-            });
-
-            if (phidget instanceof Hub) {
-                logger.debug("[{}] Is a hub, ignoring {}", serialNumber, channel.getUID().getId());
+            ChannelUID channelUID = channel.getUID();
+            Object source = channel.getConfiguration().get(CHANNEL_CONFIG_SOURCE);
+            PhidgetChannelBinding sourceBinding = source == null ? null
+                    : newBindings.get(new ChannelUID(getThing().getUID(), source.toString().trim()));
+            if (sourceBinding == null || sourceBinding.getCounter() == null) {
+                logger.warn("[{}] Counter channel {} must have a digital input with counting enabled as source",
+                        serialNumber, channelUID.getId());
                 continue;
             }
+            ChannelUID sourceUID = sourceBinding.getUID();
+            boolean frequency = CHANNEL_COUNTER_FREQUENCY
+                    .equalsIgnoreCase(String.valueOf(channel.getConfiguration().get(CHANNEL_CONFIG_VALUE)));
+            Number confRefresh = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_REFRESH_INTERVAL);
+            long refresh = confRefresh == null ? CHANNEL_DEFAULT_COUNTER_INTERVAL : confRefresh.longValue();
+            long[] last = { -1, 0 };
+            publishJobs.add(scheduler.scheduleWithFixedDelay(() -> {
+                // the source binding is replaced when its channel is reconfigured
+                PhidgetChannelBinding binding = bindings.get(sourceUID);
+                PulseCounter counter = binding == null ? null : binding.getCounter();
+                if (counter == null) {
+                    return;
+                }
+                long now = System.nanoTime();
+                long count = counter.getCount();
+                if (!frequency) {
+                    updateState(channelUID, new DecimalType(count));
+                } else if (last[0] >= 0 && count >= last[0]) {
+                    updateState(channelUID, new DecimalType((count - last[0]) * 1e9 / (now - last[1])));
+                }
+                last[0] = count;
+                last[1] = now;
+            }, refresh, refresh, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private @Nullable SampleJournal createJournal(Channel channel, List<ScheduledFuture<?>> jobs) {
+        Path journalDirectory = this.journalDirectory;
+        if (journalDirectory == null || !Boolean.TRUE.equals(channel.getConfiguration().get(CHANNEL_CONFIG_JOURNAL))) {
+            return null;
+        }
+        Path directory = journalDirectory.resolve(channel.getUID().getId());
+        try {
+            SampleJournal journal = new SampleJournal(directory, journalSegmentSize, journalRetention,
+                    JOURNAL_CAPACITY);
+            jobs.add(scheduler.scheduleWithFixedDelay(journal::drain, JOURNAL_DRAIN_INTERVAL_MS,
+                    JOURNAL_DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS));
+            logger.debug("[{}] Journaling samples of {} to {}", serialNumber, channel.getUID().getId(), directory);
+            return journal;
+        } catch (IOException e) {
+            logger.warn("[{}] Unable to journal samples of {} to {}", serialNumber, channel.getUID().getId(),
+                    directory, e);
+            return null;
+        }
+    }
+
+    private void closeJournal(PhidgetChannelBinding binding) {
+        SampleJournal journal = binding.getJournal();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * @return true if the channel of the binding, or a statistic or counter channel computed from it, is linked,
+     *         or if an interlock of this or another thing uses it
+     */
+    private boolean isNeeded(PhidgetChannelBinding binding) {
+        if (isLinked(binding.getUID()) || interlockChannels.contains(binding.getUID())
+                || phidgetsChannelFactory.isInterlockOutput(binding.getUID())) {
+            return true;
+        }
+        for (Channel channel : getThing().getChannels()) {
+            if (isSourcedChannel(channel) && isLinked(channel.getUID())) {
+                Object source = channel.getConfiguration().get(CHANNEL_CONFIG_SOURCE);
+                if (source != null && binding.getUID().getId().equals(source.toString())) {
+                    return true;
+                }
+            }
+        }
+        for (Map.Entry<ChannelUID, List<ChannelUID>> group : groups.entrySet()) {
+            if (group.getValue().contains(binding.getUID()) && isLinked(group.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the bindings that have to be open for the given channel to work, none for channels that do not
+     *         need a phidget
+     */
+    private List<PhidgetChannelBinding> getNeededBindings(ChannelUID channelUID) {
+        PhidgetChannelBinding binding = bindings.get(channelUID);
+        if (binding != null) {
+            return Collections.singletonList(binding);
+        }
+        List<ChannelUID> members = groups.get(channelUID);
+        if (members != null) {
+            List<PhidgetChannelBinding> needed = new ArrayList<>();
+            for (ChannelUID member : members) {
+                PhidgetChannelBinding memberBinding = bindings.get(member);
+                if (memberBinding != null) {
+                    needed.add(memberBinding);
+                }
+            }
+            return needed;
+        }
+        Channel channel = getThing().getChannel(channelUID.getId());
+        if (channel != null && isSourcedChannel(channel)) {
+            Object source = channel.getConfiguration().get(CHANNEL_CONFIG_SOURCE);
+            if (source != null) {
+                binding = bindings.get(new ChannelUID(getThing().getUID(), source.toString()));
+            }
+        }
+        return binding == null ? Collections.emptyList() : Collections.singletonList(binding);
+    }
+
+    @Override
+    public void channelLinked(ChannelUID channelUID) {
+        for (PhidgetChannelBinding binding : getNeededBindings(channelUID)) {
+            keepOpen(binding);
+        }
+        super.channelLinked(channelUID);
+    }
 
-            Number confSens = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_SENSITIVITY);
-            Double sensitivity = confSens == null ? CHANNEL_DEFAULT_SENSITIVITY : confSens.doubleValue();
+    /**
+     * Opens the given channel unless it is open already, and keeps it from being closed. Called for outputs
+     * that an interlock of another thing switches.
+     */
+    private void keepOpen(ChannelUID channelUID) {
+        PhidgetChannelBinding binding = bindings.get(channelUID);
+        if (binding != null) {
+            keepOpen(binding);
+        }
+    }
+
+    private void keepOpen(PhidgetChannelBinding binding) {
+        synchronized (linkLock) {
+            ScheduledFuture<?> closeJob = closeJobs.remove(binding);
+            if (closeJob != null) {
+                closeJob.cancel(false);
+            }
+        }
+        if (binding.getPhidget() == null) {
+            logger.debug("[{}] Channel {} is needed, opening it", serialNumber, binding.getUID().getId());
+            phidgetsChannelFactory.getPhidgetChannel(binding.getKey())
+                    .thenAccept(phidget -> openChannel(binding, phidget, null));
+        }
+    }
 
-            String channelTypeId = channel.getChannelTypeUID().getId();
-            boolean hubPortDevice = channelTypeId.equals(CHANNEL_VINT_PORT);
-            if (hubPortDevice) {
-                String portNumberString = channel.getProperties().get(CHANNEL_PROPERTY_PORT);
-                int portNumber = Integer.valueOf(portNumberString);
+    @Override
+    public void channelUnlinked(ChannelUID channelUID) {
+        for (PhidgetChannelBinding binding : getNeededBindings(channelUID)) {
+            if (isNeeded(binding)) {
+                continue;
+            }
+            logger.debug("[{}] Channel {} was unlinked, closing it in {} ms", serialNumber, binding.getUID().getId(),
+                    unlinkGracePeriod);
+            synchronized (linkLock) {
+                if (!closeJobs.containsKey(binding)) {
+                    closeJobs.put(binding,
+                            scheduler.schedule(() -> closeChannel(binding), unlinkGracePeriod, TimeUnit.MILLISECONDS));
+                }
+            }
+        }
+        super.channelUnlinked(channelUID);
+    }
+
+    /**
+     * Applies an update of the thing by diffing its channels against the bound ones. Configuration changes that
+     * the phidget can take live are applied to it, and a channel whose processing changes gets new processing
+     * stages while its phidget stays open. Only a channel whose phidget or phidget listeners change is reopened,
+     * on its own. Only a changed serial number, changed channels or changed statistic and diagnostic channels reinitialize the
+     * whole thing.
+     */
+    @Override
+    public void thingUpdated(Thing thing) {
+        Thing oldThing = getThing();
+        if (getSerialNumber(thing) != serialNumber
+                || !Objects.equals(thing.getConfiguration().get(THING_CONFIG_INTERLOCKS),
+                        oldThing.getConfiguration().get(THING_CONFIG_INTERLOCKS))
+                || !getComputedChannels(thing).equals(getComputedChannels(oldThing))
+                || !getDeviceChannelUIDs(thing).equals(getDeviceChannelUIDs(oldThing))) {
+            logger.debug("[{}] Thing changed, reinitializing", serialNumber);
+            dispose();
+            this.thing = thing;
+            this.serialNumber = getSerialNumber(thing);
+            initialize();
+            return;
+        }
+        this.thing = thing;
+        for (Channel channel : thing.getChannels()) {
+            PhidgetChannelBinding binding = bindings.get(channel.getUID());
+            if (binding == null) {
+                continue;
+            }
+            Set<String> changed = getChangedParameters(binding.getChannel(), channel);
+            if (changed.isEmpty()) {
+                continue;
+            }
+            PhidgetChannelKey key = getChannelKey(channel);
+            if (!key.equals(binding.getKey()) || !Collections.disjoint(changed, REOPEN_PARAMETERS)) {
+                logger.debug("[{}] Reopening channel {} for {}", serialNumber, channel.getUID().getId(), changed);
+                reopenChannel(binding, channel, key);
+                continue;
+            }
+            if (LIVE_PARAMETERS.containsAll(changed)) {
+                binding.setChannel(channel);
+            } else {
+                logger.debug("[{}] Rebuilding channel {} for {}", serialNumber, channel.getUID().getId(), changed);
+                rebuildChannel(binding, channel);
+            }
+            Set<String> live = new HashSet<>(changed);
+            live.retainAll(LIVE_PARAMETERS);
+            PhidgetChannel phidget = binding.getPhidget();
+            if (!live.isEmpty() && phidget != null && binding.isAttached()) {
+                logger.debug("[{}] Applying {} to channel {}", serialNumber, live, channel.getUID().getId());
                 try {
-                    phidget.setIsHubPortDevice(hubPortDevice);
-                    phidget.setHubPort(portNumber);
-                    phidget.setChannel(0);
+                    phidget.reconfigure(channel.getConfiguration(), live);
                 } catch (PhidgetException e) {
-                    logger.error("[{}] Unable to configure hub port {}", serialNumber, channel.getUID().getId(), e);
+                    logger.error("[{}] Unable to configure phidget channel {} properly", serialNumber,
+                            channel.getUID().getId(), e);
                 }
             }
+        }
+    }
 
-            if (phidget instanceof VoltageInput) {
-                logger.debug("[{}] Channel {} is a voltage input", serialNumber, channel.getUID().getId());
-                VoltageInput vin = (VoltageInput) phidget;
-                vin.addAttachListener((event) -> {
-                    try {
-                        vin.setSensorValueChangeTrigger(sensitivity);
-
-                        Number sensorTypeId = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_SENSOR_TYPE);
-                        VoltageSensorType sensorType = VoltageSensorType.getEnum(sensorTypeId.intValue());
-                        if (sensorType != null) {
-                            vin.setSensorType(sensorType);
-                        }
-
-                        Number powerSupplyId = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_POWER_SUPPLY);
-                        PowerSupply powerSupply = PowerSupply.getEnum(powerSupplyId.intValue());
-                        if (powerSupply != null) {
-                            vin.setPowerSupply(powerSupply);
-                        }
-
-                        Number voltageRangeId = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_VOLTAGE_RANGE);
-                        VoltageRange voltageRange = VoltageRange.getEnum(voltageRangeId.intValue());
-                        if (voltageRange != null) {
-                            vin.setVoltageRange(voltageRange);
-                        }
-                    } catch (PhidgetException e) {
-                        logger.error("[{}] Unable to configure phidget channel {} properly", serialNumber,
-                                channel.getUID().getId(), e);
-                    }
-                });
-                vin.addSensorChangeListener((event) -> {
-                    logger.debug("[{}] Sensor changed for {} to {}", serialNumber, channel.getUID().getId(),
-                            event.getSensorValue());
-                    updateState(channel.getUID(), new DecimalType(event.getSensorValue()));
-                });
-            } else if (phidget instanceof VoltageRatioInput) {
-                logger.debug("[{}] Channel {} is a voltage ratio input", serialNumber, channel.getUID().getId());
-                VoltageRatioInput vri = (VoltageRatioInput) phidget;
-                vri.addAttachListener((event) -> {
-                    try {
-                        vri.setSensorValueChangeTrigger(sensitivity);
-
-                        Number sensorTypeId = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_SENSOR_TYPE);
-                        VoltageRatioSensorType sensorType = VoltageRatioSensorType.getEnum(sensorTypeId.intValue());
-                        if (sensorType != null) {
-                            vri.setSensorType(sensorType);
-                        }
-
-                        Boolean bridgeEnable = (Boolean) channel.getConfiguration().get(CHANNEL_CONFIG_BRIDGE_ENABLE);
-                        if (bridgeEnable != null && bridgeEnable) {
-                            vri.setBridgeEnabled(bridgeEnable);
-                        }
-
-                        Number bridgeGainId = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_BRIDGE_GAIN);
-                        BridgeGain bridgeGain = BridgeGain.getEnum(bridgeGainId.intValue());
-                        if (bridgeGain != null) {
-                            vri.setBridgeGain(bridgeGain);
-                        }
-                    } catch (PhidgetException e) {
-                        logger.error("[{}] Unable to configure phidget channel {} properly", serialNumber,
-                                channel.getUID().getId(), e);
-                    }
-                });
-                vri.addSensorChangeListener((event) -> {
-                    logger.debug("[{}] Sensor changed for {} to {}", serialNumber, channel.getUID().getId(),
-                            event.getSensorValue());
-                    updateState(channel.getUID(), new DecimalType(event.getSensorValue()));
-                });
-            } else if (phidget instanceof DigitalInput) {
-                logger.debug("[{}] Channel {} is a digital input", serialNumber, channel.getUID().getId());
-                DigitalInput in = (DigitalInput) phidget;
-                in.addAttachListener((event) -> {
-                    try {
-                        Number powerSupplyId = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_POWER_SUPPLY);
-                        PowerSupply powerSupply = PowerSupply.getEnum(powerSupplyId.intValue());
-                        if (powerSupply != null) {
-                            in.setPowerSupply(powerSupply);
-                        }
-
-                        Number inputModeId = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_INPUT_MODE);
-                        InputMode inputMode = InputMode.getEnum(inputModeId.intValue());
-                        if (inputMode != null) {
-                            in.setInputMode(inputMode);
-                        }
-                    } catch (PhidgetException e) {
-                        logger.error("[{}] Unable to configure phidget channel {} properly", serialNumber,
-                                channel.getUID().getId(), e);
-                    }
-                });
-                in.addStateChangeListener((event) -> {
-                    logger.debug("[{}] Digital input changed for {} to {}", serialNumber, channel.getUID().getId(),
-                            event.getState());
-                    updateState(channel.getUID(), event.getState() ? OnOffType.ON : OnOffType.OFF);
-                });
-            } else if (phidget instanceof DigitalOutput) {
-                logger.debug("[{}] Channel {} is a digital output", serialNumber, channel.getUID().getId());
-                DigitalOutput out = (DigitalOutput) phidget;
-                out.addAttachListener((event) -> {
-                    try {
-                        Number dutyCycle = (Number) channel.getConfiguration().get(CHANNEL_CONFIG_DUTY_CYCLE);
-                        if (dutyCycle != null) {
-                            out.setDutyCycle(dutyCycle.doubleValue());
-                        }
-
-                        Number ledCurrentLimit = (Number) channel.getConfiguration()
-                                .get(CHANNEL_CONFIG_LED_CURRENT_LIMIT);
-                        if (ledCurrentLimit != null) {
-                            out.setLEDCurrentLimit(ledCurrentLimit.doubleValue());
-                        }
-
-                        Number ledForwardVoltageId = (Number) channel.getConfiguration()
-                                .get(CHANNEL_CONFIG_LED_FORWARD_VOLTAGE);
-                        LEDForwardVoltage ledForwardVoltage = LEDForwardVoltage.getEnum(ledForwardVoltageId.intValue());
-                        if (ledForwardVoltage != null) {
-                            out.setLEDForwardVoltage(ledForwardVoltage);
-                        }
-                    } catch (PhidgetException e) {
-                        logger.error("[{}] Unable to configure phidget channel {} properly", serialNumber,
-                                channel.getUID().getId(), e);
-                    }
-                });
+    /**
+     * Replaces the coalescing stage, sample buffer, journal, calibration, counter and publishing jobs of a
+     * channel whose phidget stays the same. The phidget is kept open, so an output keeps its state and any
+     * running pulse.
+     */
+    private void rebuildChannel(PhidgetChannelBinding binding, Channel channel) {
+        List<ScheduledFuture<?>> jobs = channelJobs.remove(binding.getUID());
+        if (jobs != null) {
+            for (ScheduledFuture<?> job : jobs) {
+                job.cancel(false);
+            }
+        }
+        persistCount(binding);
+        SensorCoalescer oldCoalescer = binding.getCoalescer();
+        SampleJournal oldJournal = binding.getJournal();
+        binding.update(createBinding(channel, binding.getKey(), binding.getMetrics()));
+        if (oldCoalescer != null) {
+            // publishes a value held back by the old publish interval
+            oldCoalescer.flush();
+        }
+        if (oldJournal != null) {
+            oldJournal.close();
+        }
+    }
+
+    /**
+     * Replaces the binding of a channel whose phidget changed, closing the old phidget and opening the new one
+     * if the channel is needed.
+     */
+    private void reopenChannel(PhidgetChannelBinding binding, Channel channel, PhidgetChannelKey key) {
+        List<ScheduledFuture<?>> jobs = channelJobs.remove(binding.getUID());
+        if (jobs != null) {
+            for (ScheduledFuture<?> job : jobs) {
+                job.cancel(false);
+            }
+        }
+        persistCount(binding);
+        PhidgetChannelBinding newBinding = createBinding(channel, key);
+        synchronized (linkLock) {
+            ScheduledFuture<?> closeJob = closeJobs.remove(binding);
+            if (closeJob != null) {
+                closeJob.cancel(false);
+            }
+            Map<ChannelUID, PhidgetChannelBinding> newBindings = new HashMap<>(bindings);
+            newBindings.put(channel.getUID(), newBinding);
+            bindings = newBindings;
+            binding.setPhidget(null);
+        }
+        closeJournal(binding);
+        Command pending = pendingCommands.remove(binding);
+        phidgetsChannelFactory.disposePhidgetChannel(binding.getKey());
+        if (binding.setAttached(false)) {
+            attachedChannels.decrementAndGet();
+        }
+        if (pending != null && newBinding.getAdapter() == binding.getAdapter()) {
+            pendingCommands.put(newBinding, pending);
+        }
+        if (isNeeded(newBinding)) {
+            phidgetsChannelFactory.getPhidgetChannel(key).thenAccept(phidget -> openChannel(newBinding, phidget, null));
+        } else {
+            scheduleStatusUpdate();
+        }
+    }
+
+    /**
+     * @return the names of the configuration parameters that differ between the two versions of a channel
+     */
+    private static Set<String> getChangedParameters(Channel oldChannel, Channel newChannel) {
+        Map<String, Object> oldConfig = oldChannel.getConfiguration().getProperties();
+        Map<String, Object> newConfig = newChannel.getConfiguration().getProperties();
+        Set<String> changed = new HashSet<>();
+        for (String name : oldConfig.keySet()) {
+            if (!Objects.equals(oldConfig.get(name), newConfig.get(name))) {
+                changed.add(name);
+            }
+        }
+        for (String name : newConfig.keySet()) {
+            if (!oldConfig.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    private Set<ChannelUID> getDeviceChannelUIDs(Thing thing) {
+        Set<ChannelUID> channelUIDs = new HashSet<>();
+        for (Channel channel : thing.getChannels()) {
+            if (!isVirtualChannel(channel)) {
+                channelUIDs.add(channel.getUID());
+            }
+        }
+        return channelUIDs;
+    }
+
+    /**
+     * @return the configurations of the statistic and diagnostic channels of the thing
+     */
+    private Map<ChannelUID, Map<String, Object>> getComputedChannels(Thing thing) {
+        Map<ChannelUID, Map<String, Object>> channels = new HashMap<>();
+        for (Channel channel : thing.getChannels()) {
+            if (isVirtualChannel(channel)) {
+                channels.put(channel.getUID(), channel.getConfiguration().getProperties());
+            }
+        }
+        return channels;
+    }
+
+    /**
+     * Sets up and opens the phidget for the given binding unless it already has one.
+     *
+     * @param startup the startup times to add the configure and open times to, if opened during startup
+     */
+    private void openChannel(PhidgetChannelBinding binding, @Nullable PhidgetChannel phidget,
+            @Nullable StartupTimes startup) {
+        if (phidget == null) {
+            logger.debug("[{}] No phidget, ignoring {}", serialNumber, binding.getUID().getId());
+            return;
+        }
+        synchronized (linkLock) {
+            if (binding.getPhidget() != null || bindings.get(binding.getUID()) != binding) {
+                return;
+            }
+            binding.setPhidget(phidget);
+        }
+        logger.debug("[{}] Setting up phidget for channel {}", serialNumber, binding.getUID().getId());
+        long start = System.nanoTime();
+        setupPhidget(binding, phidget);
+        long configured = System.nanoTime();
+        try {
+            ensureOpen(binding, phidget);
+        } catch (PhidgetException e) {
+            logger.error("[{}] Unable to open phidget channel {}", serialNumber, binding.getUID().getId(), e);
+        }
+        if (startup != null) {
+            startup.addConfigure(configured - start);
+            startup.addOpen(System.nanoTime() - configured);
+        } else {
+            scheduleStatusUpdate();
+        }
+    }
+
+    private void closeChannel(PhidgetChannelBinding binding) {
+        synchronized (linkLock) {
+            closeJobs.remove(binding);
+            if (isNeeded(binding) || binding.getPhidget() == null) {
+                return;
+            }
+            binding.setPhidget(null);
+        }
+        logger.debug("[{}] Closing unlinked channel {}", serialNumber, binding.getUID().getId());
+        pendingCommands.remove(binding);
+        phidgetsChannelFactory.disposePhidgetChannel(binding.getKey());
+        if (binding.setAttached(false)) {
+            attachedChannels.decrementAndGet();
+        }
+        scheduleStatusUpdate();
+    }
+
+    private void setupPhidget(PhidgetChannelBinding binding, PhidgetChannel phidget) {
+        logger.debug("[{}] Channel {} is a {}", serialNumber, binding.getUID().getId(), binding.getAdapter());
+        phidget.addListener(binding, listener);
+    }
+
+    /**
+     * Applies the current configuration of the channel to its phidget. Called on every attach.
+     */
+    private void configurePhidget(PhidgetChannelBinding binding, PhidgetChannel phidget) {
+        try {
+            phidget.configure(binding.getChannel().getConfiguration());
+        } catch (PhidgetException e) {
+            logger.error("[{}] Unable to configure phidget channel {} properly", serialNumber,
+                    binding.getUID().getId(), e);
+        }
+    }
+
+    /**
+     * Schedules an update of the thing status from the number of attached channels. Attach and detach
+     * events arrive per channel, often dozens at once when a device reconnects, so the update is debounced
+     * to emit a single transition for the whole burst. A thing without open channels is ONLINE if none of
+     * its channels needs a phidget, and OFFLINE if their phidgets could not be created.
+     */
+    private void scheduleStatusUpdate() {
+        synchronized (statusLock) {
+            if (statusJob == null) {
+                statusJob = scheduler.schedule(this::updateThingStatus, STATUS_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void updateThingStatus() {
+        synchronized (statusLock) {
+            statusJob = null;
+        }
+        if (!channelsSetUp) {
+            return;
+        }
+        int total = 0;
+        for (PhidgetChannelBinding binding : bindings.values()) {
+            if (binding.getPhidget() != null || missingChannels.contains(binding)) {
+                total++;
+            }
+        }
+        int attached = attachedChannels.get();
+        if (total == 0) {
+            for (PhidgetChannelBinding binding : bindings.values()) {
+                if (binding.getAdapter() != PhidgetChannelAdapters.NONE && isNeeded(binding)) {
+                    setStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, "No channels open");
+                    return;
+                }
+            }
+            // nothing to attach, such as a thing without linked channels
+            setStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE, "No linked channels");
+            return;
+        }
+        if (attached >= total) {
+            setStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE, null);
+        } else if (attached > 0) {
+            setStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE,
+                    String.format("Degraded, %d of %d channels attached", attached, total));
+        } else {
+            setStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, "No channels attached");
+        }
+    }
+
+    /**
+     * Updates the thing status unless it is unchanged.
+     */
+    private void setStatus(ThingStatus status, ThingStatusDetail detail, @Nullable String description) {
+        ThingStatusInfo statusInfo = new ThingStatusInfo(status, detail, description);
+        synchronized (statusLock) {
+            if (statusInfo.equals(lastStatus)) {
+                return;
+            }
+            lastStatus = statusInfo;
+        }
+        logger.debug("[{}] Status {}", serialNumber, statusInfo);
+        updateStatus(status, detail, description);
+    }
+
+    /**
+     * Publishes the state of a device channel. All states of a channel go through here, so they stay in order
+     * when they are dispatched.
+     */
+    private void publishState(ChannelUID channelUID, State state) {
+        EventDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(channelUID, state);
+        } else {
+            updateState(channelUID, state);
+        }
+    }
+
+    private void ensureOpen(PhidgetChannelBinding binding, PhidgetChannel phidget) throws PhidgetException {
+        if (binding.markOpened()) {
+            phidget.open();
+        }
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} the phidget was written at
+     */
+    private long writeCommand(PhidgetChannelBinding binding, PhidgetChannel phidget, Command command)
+            throws PhidgetException {
+        ChannelMetrics metrics = binding.getMetrics();
+        long writeStart = System.nanoTime();
+        State state = phidget.write(command);
+        long written = System.nanoTime();
+        metrics.commandWrite.record(written - writeStart);
+        if (state != null) {
+            metrics.published.increment();
+            if (logger.isDebugEnabled()) {
+                logger.debug("[{}] Setting state for {} to {}", serialNumber, binding.getUID().getId(), state);
+            }
+            publishState(binding.getUID(), state);
+        }
+        return written;
+    }
+
+    /**
+     * Schedules one pass over the pending output states. Outputs of a device attach in a burst after it
+     * reconnects, so the pass is delayed slightly to restore all of them together.
+     */
+    private void scheduleRestore() {
+        synchronized (restoreLock) {
+            if (restoreJob == null) {
+                restoreTriggeredAt = System.nanoTime();
+                restoreJob = scheduler.schedule(this::restorePendingCommands, OUTPUT_RESTORE_DELAY_MS,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void restorePendingCommands() {
+        long triggeredAt;
+        synchronized (restoreLock) {
+            restoreJob = null;
+            triggeredAt = restoreTriggeredAt;
+        }
+        int restored = 0;
+        for (Map.Entry<PhidgetChannelBinding, Command> entry : pendingCommands.entrySet()) {
+            PhidgetChannelBinding binding = entry.getKey();
+            PhidgetChannel phidget = binding.getPhidget();
+            if (!binding.isAttached() || phidget == null) {
+                continue;
+            }
+            Command command = entry.getValue();
+            if (!pendingCommands.remove(binding, command)) {
+                // a newer command arrived meanwhile, it is restored in the next pass
+                scheduleRestore();
+                continue;
             }
             try {
-                phidget.open();
+                writeCommand(binding, phidget, command);
+                restored++;
             } catch (PhidgetException e) {
-                logger.error("[{}] Unable to open phidget channel {}", serialNumber, channel.getUID().getId(), e);
+                logger.warn("[{}] Unable to restore state {} for channel {}", serialNumber, command,
+                        binding.getUID().getId(), e);
             }
         }
-        updateStatus(ThingStatus.ONLINE);
+        if (restored > 0) {
+            metrics.outputRestore.recordSince(triggeredAt);
+            logger.debug("[{}] Restored {} output states in {} ms", serialNumber, restored,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - triggeredAt));
+        }
     }
 
     @Override
     public void dispose() {
         logger.debug("[{}] Dispose", serialNumber);
-        currentStateChanger.clear();
+        phidgetsChannelFactory.removeHandler(getThing().getUID(), this);
+        phidgetsChannelFactory.setInterlockOutputs(getThing().getUID(), Collections.emptySet());
+        Map<ChannelUID, PhidgetChannelBinding> bindings = this.bindings;
+        this.bindings = Collections.emptyMap();
+        channelsSetUp = false;
+        for (ScheduledFuture<?> job : publishJobs) {
+            job.cancel(false);
+        }
+        publishJobs.clear();
+        for (List<ScheduledFuture<?>> jobs : channelJobs.values()) {
+            for (ScheduledFuture<?> job : jobs) {
+                job.cancel(false);
+            }
+        }
+        channelJobs.clear();
+        PulseTimer pulseTimer = this.pulseTimer;
+        for (PhidgetChannelBinding binding : bindings.values()) {
+            closeJournal(binding);
+            persistCount(binding);
+            PhidgetChannel phidget = binding.getPhidget();
+            if (pulseTimer != null && pulseTimer.cancel(binding) && phidget != null && binding.isAttached()) {
+                // ends the pulse now rather than relying on the reset when the phidget is closed
+                try {
+                    phidget.write(OnOffType.OFF);
+                } catch (PhidgetException e) {
+                    logger.warn("[{}] Unable to end the pulse of channel {}", serialNumber,
+                            binding.getUID().getId(), e);
+                }
+            }
+        }
+        Thread replayThread = this.replayThread;
+        if (replayThread != null) {
+            replayThread.interrupt();
+            this.replayThread = null;
+        }
+        EventRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.close();
+            this.recorder = null;
+        }
+        synchronized (restoreLock) {
+            ScheduledFuture<?> restoreJob = this.restoreJob;
+            if (restoreJob != null) {
+                restoreJob.cancel(false);
+                this.restoreJob = null;
+            }
+        }
+        pendingCommands.clear();
+        EventDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            dispatcher.clear();
+        }
+        synchronized (linkLock) {
+            for (ScheduledFuture<?> closeJob : closeJobs.values()) {
+                closeJob.cancel(false);
+            }
+            closeJobs.clear();
+        }
+        synchronized (statusLock) {
+            ScheduledFuture<?> statusJob = this.statusJob;
+            if (statusJob != null) {
+                statusJob.cancel(false);
+                this.statusJob = null;
+            }
+            lastStatus = null;
+        }
         for (Channel channel : getThing().getChannels()) {
+            if (isVirtualChannel(channel)) {
+                continue;
+            }
             logger.debug("[{}] Disposing phidget for channel {}", serialNumber, channel.getUID().getId());
             disposePhidget(channel);
         }
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * The {@link Calibration} converts the values of an analog channel, raw voltages or ratios in high-rate mode
+ * and sensor values otherwise, into the unit of the attached sensor. A calibration is parsed once from the
+ * channel configuration into coefficient arrays, so applying it allocates nothing.
+ *
+ * The configuration is one of
+ * <ul>
+ * <li><code>linear:&lt;gain&gt;,&lt;offset&gt;</code> for <code>gain * x + offset</code></li>
+ * <li><code>polynomial:&lt;c0&gt;,&lt;c1&gt;,...</code> for <code>c0 + c1 * x + c2 * x^2 + ...</code></li>
+ * <li><code>table:&lt;x&gt;=&lt;y&gt;,&lt;x&gt;=&lt;y&gt;,...</code> for linear interpolation between the points,
+ * holding the first and last value outside of them</li>
+ * </ul>
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public abstract class Calibration {
+    public static final Calibration NONE = new Calibration() {
+        @Override
+        public double apply(double value) {
+            return value;
+        }
+    };
+
+    public abstract double apply(double value);
+
+    /**
+     * Parses the calibration of a channel configuration, no value meaning no calibration.
+     *
+     * @throws IllegalArgumentException if the value is not a valid calibration
+     */
+    public static Calibration fromConfig(@Nullable Object value) {
+        if (value == null || value.toString().trim().isEmpty()) {
+            return NONE;
+        }
+        String config = value.toString().trim();
+        int colon = config.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Calibration must start with linear:, polynomial: or table:");
+        }
+        String type = config.substring(0, colon).trim().toLowerCase();
+        String[] terms = config.substring(colon + 1).split(",");
+        switch (type) {
+            case "linear":
+                if (terms.length != 2) {
+                    throw new IllegalArgumentException("Linear calibration takes a gain and an offset");
+                }
+                return new Linear(parse(terms[0]), parse(terms[1]));
+            case "polynomial":
+                double[] coefficients = new double[terms.length];
+                for (int i = 0; i < terms.length; i++) {
+                    coefficients[i] = parse(terms[i]);
+                }
+                return new Polynomial(coefficients);
+            case "table":
+                double[] x = new double[terms.length];
+                double[] y = new double[terms.length];
+                for (int i = 0; i < terms.length; i++) {
+                    String[] point = terms[i].split("=");
+                    if (point.length != 2) {
+                        throw new IllegalArgumentException("Table points must be given as x=y: " + terms[i]);
+                    }
+                    x[i] = parse(point[0]);
+                    y[i] = parse(point[1]);
+                }
+                return new Table(x, y);
+            default:
+                throw new IllegalArgumentException("Unknown calibration type " + type);
+        }
+    }
+
+    private static double parse(String term) {
+        try {
+            return Double.parseDouble(term.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number " + term.trim());
+        }
+    }
+
+    static final class Linear extends Calibration {
+        private final double gain;
+        private final double offset;
+
+        Linear(double gain, double offset) {
+            this.gain = gain;
+            this.offset = offset;
+        }
+
+        @Override
+        public double apply(double value) {
+            return gain * value + offset;
+        }
+    }
+
+    static final class Polynomial extends Calibration {
+        private final double[] coefficients;
+
+        Polynomial(double[] coefficients) {
+            this.coefficients = coefficients;
+        }
+
+        @Override
+        public double apply(double value) {
+            double result = 0;
+            for (int i = coefficients.length - 1; i >= 0; i--) {
+                result = result * value + coefficients[i];
+            }
+            return result;
+        }
+    }
+
+    static final class Table extends Calibration {
+        private final double[] x;
+        private final double[] y;
+
+        Table(double[] x, double[] y) {
+            if (x.length < 2) {
+                throw new IllegalArgumentException("Table calibration takes at least two points");
+            }
+            // sort the points by x, keeping each y with its x
+            Integer[] order = new Integer[x.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(x[a], x[b]));
+            this.x = new double[x.length];
+            this.y = new double[y.length];
+            for (int i = 0; i < order.length; i++) {
+                this.x[i] = x[order[i]];
+                this.y[i] = y[order[i]];
+                if (i > 0 && this.x[i] == this.x[i - 1]) {
+                    throw new IllegalArgumentException("Table calibration has two points at " + this.x[i]);
+                }
+            }
+        }
+
+        @Override
+        public double apply(double value) {
+            int last = x.length - 1;
+            if (value <= x[0]) {
+                return y[0];
+            }
+            if (value >= x[last]) {
+                return y[last];
+            }
+            int index = Arrays.binarySearch(x, value);
+            if (index >= 0) {
+                return y[index];
+            }
+            int upper = -index - 1;
+            int lower = upper - 1;
+            return y[lower] + (value - x[lower]) * (y[upper] - y[lower]) / (x[upper] - x[lower]);
+        }
+    }
+}
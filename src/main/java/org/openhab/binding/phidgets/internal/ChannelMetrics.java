@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link ChannelMetrics} count the events and time the hot paths of one channel binding.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class ChannelMetrics {
+    /** Events received from the phidget listeners */
+    public final LongAdder received = new LongAdder();
+    /** State updates published to the framework */
+    public final LongAdder published = new LongAdder();
+    public final LongAdder attaches = new LongAdder();
+    public final LongAdder detaches = new LongAdder();
+
+    /** Time spent handling a listener callback */
+    public final TimingMetric listener = new TimingMetric();
+    /** Time spent in handleCommand resolving the binding and phidget of the channel */
+    public final TimingMetric commandAcquire = new TimingMetric();
+    /** Time spent in handleCommand setting the state on the phidget */
+    public final TimingMetric commandWrite = new TimingMetric();
+
+    /** Difference between the written and the requested width of the output pulses */
+    public final TimingMetric pulseJitter = new TimingMetric();
+    /** Pulses that ended while the output was detached, and were switched off when it attached */
+    public final LongAdder pulsesDeferred = new LongAdder();
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * The {@link DiagnosticMetric} selects which metric a diagnostic channel publishes. Metrics are summed over
+ * the given bindings; times are in microseconds, means are weighted by the number of recordings.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public enum DiagnosticMetric {
+    EVENTS_RECEIVED,
+    EVENTS_PUBLISHED,
+    EVENTS_DROPPED,
+    LISTENER_TIME,
+    LISTENER_TIME_MAX,
+    COMMAND_ACQUIRE_TIME,
+    COMMAND_WRITE_TIME,
+    COMMAND_WRITE_TIME_MAX,
+    ATTACHES,
+    DETACHES,
+    ATTACHED_CHANNELS,
+    ACQUISITION_WAIT,
+    OUTPUT_RESTORE_TIME,
+    OUTPUT_RESTORE_TIME_MAX,
+    GROUP_COMMAND_TIME,
+    GROUP_COMMAND_TIME_MAX,
+    DISPATCH_QUEUE_DEPTH,
+    DISPATCH_QUEUE_DEPTH_MAX,
+    DISPATCH_DELAY,
+    DISPATCH_DELAY_MAX,
+    DISPATCH_DROPPED,
+    DISPATCH_REPLACED,
+    PULSE_JITTER,
+    PULSE_JITTER_MAX,
+    PULSES_DEFERRED,
+    INTERLOCK_REACTION_TIME,
+    INTERLOCK_REACTION_TIME_MAX,
+    INTERLOCKS_MISSED;
+
+    public double of(Collection<PhidgetChannelBinding> bindings, ThingMetrics thingMetrics) {
+        switch (this) {
+            case EVENTS_RECEIVED:
+                return sum(bindings, binding -> binding.getMetrics().received.sum());
+            case EVENTS_PUBLISHED:
+                return sum(bindings, binding -> binding.getMetrics().published.sum());
+            case EVENTS_DROPPED:
+                return sum(bindings, PhidgetChannelBinding::getDropped);
+            case LISTENER_TIME:
+                return mean(bindings, binding -> binding.getMetrics().listener);
+            case LISTENER_TIME_MAX:
+                return max(bindings, binding -> binding.getMetrics().listener);
+            case COMMAND_ACQUIRE_TIME:
+                return mean(bindings, binding -> binding.getMetrics().commandAcquire);
+            case COMMAND_WRITE_TIME:
+                return mean(bindings, binding -> binding.getMetrics().commandWrite);
+            case COMMAND_WRITE_TIME_MAX:
+                return max(bindings, binding -> binding.getMetrics().commandWrite);
+            case ATTACHES:
+                return sum(bindings, binding -> binding.getMetrics().attaches.sum());
+            case DETACHES:
+                return sum(bindings, binding -> binding.getMetrics().detaches.sum());
+            case ATTACHED_CHANNELS:
+                return sum(bindings, binding -> binding.isAttached() ? 1L : 0L);
+            case OUTPUT_RESTORE_TIME:
+                return thingMetrics.outputRestore.getMeanNanos() / 1000d;
+            case OUTPUT_RESTORE_TIME_MAX:
+                return thingMetrics.outputRestore.getMaxNanos() / 1000d;
+            case GROUP_COMMAND_TIME:
+                return thingMetrics.groupCommand.getMeanNanos() / 1000d;
+            case GROUP_COMMAND_TIME_MAX:
+                return thingMetrics.groupCommand.getMaxNanos() / 1000d;
+            case DISPATCH_QUEUE_DEPTH:
+                return thingMetrics.dispatchQueueDepth.get();
+            case DISPATCH_QUEUE_DEPTH_MAX:
+                return thingMetrics.dispatchQueueDepthMax.get();
+            case DISPATCH_DELAY:
+                return thingMetrics.dispatchDelay.getMeanNanos() / 1000d;
+            case DISPATCH_DELAY_MAX:
+                return thingMetrics.dispatchDelay.getMaxNanos() / 1000d;
+            case DISPATCH_DROPPED:
+                return thingMetrics.dispatchDropped.sum();
+            case DISPATCH_REPLACED:
+                return thingMetrics.dispatchReplaced.sum();
+            case PULSE_JITTER:
+                return mean(bindings, binding -> binding.getMetrics().pulseJitter);
+            case PULSE_JITTER_MAX:
+                return max(bindings, binding -> binding.getMetrics().pulseJitter);
+            case PULSES_DEFERRED:
+                return sum(bindings, binding -> binding.getMetrics().pulsesDeferred.sum());
+            case INTERLOCK_REACTION_TIME:
+                return thingMetrics.interlockReaction.getMeanNanos() / 1000d;
+            case INTERLOCK_REACTION_TIME_MAX:
+                return thingMetrics.interlockReaction.getMaxNanos() / 1000d;
+            case INTERLOCKS_MISSED:
+                return thingMetrics.interlocksMissed.sum();
+            default:
+                return thingMetrics.acquisitionWait.getMeanNanos() / 1000d;
+        }
+    }
+
+    private static long sum(Collection<PhidgetChannelBinding> bindings,
+            Function<PhidgetChannelBinding, Long> value) {
+        long sum = 0;
+        for (PhidgetChannelBinding binding : bindings) {
+            sum += value.apply(binding);
+        }
+        return sum;
+    }
+
+    private static double mean(Collection<PhidgetChannelBinding> bindings,
+            Function<PhidgetChannelBinding, TimingMetric> timing) {
+        long count = 0;
+        long total = 0;
+        for (PhidgetChannelBinding binding : bindings) {
+            TimingMetric metric = timing.apply(binding);
+            count += metric.getCount();
+            total += metric.getTotalNanos();
+        }
+        return count == 0 ? 0 : total / 1000d / count;
+    }
+
+    private static double max(Collection<PhidgetChannelBinding> bindings,
+            Function<PhidgetChannelBinding, TimingMetric> timing) {
+        long max = 0;
+        for (PhidgetChannelBinding binding : bindings) {
+            max = Math.max(max, timing.apply(binding).getMaxNanos());
+        }
+        return max / 1000d;
+    }
+
+    public static DiagnosticMetric fromConfig(@Nullable Object value) {
+        if (value != null) {
+            for (DiagnosticMetric metric : values()) {
+                if (metric.name().replace('_', '-').equalsIgnoreCase(value.toString())) {
+                    return metric;
+                }
+            }
+        }
+        return EVENTS_RECEIVED;
+    }
+}
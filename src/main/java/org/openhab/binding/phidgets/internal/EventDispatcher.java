@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.types.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * The {@link EventDispatcher} hands the state updates of one device over from the phidget callback threads
+ * to a worker pool, so a slow event bus never blocks the native library. Each device has its own bounded
+ * queue, which at most one worker drains at a time, so the states of a channel are published in order.
+ *
+ * When the queue is full, or with the {@link OverflowPolicy#LATEST} policy already holds a state of the
+ * channel, the oldest respectively the superseded state is dropped. The callback thread only ever waits for
+ * the queue lock.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class EventDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EventDispatcher.class);
+
+    /** Events published per turn of a worker, before it makes way for the queues of other devices */
+    private static final int DRAIN_BATCH = 64;
+
+    public enum OverflowPolicy {
+        /** Keeps only the latest queued state per channel, and drops the oldest state when still full */
+        LATEST,
+        /** Keeps every state and drops the oldest when the queue is full */
+        DROP_OLDEST;
+
+        public static OverflowPolicy fromConfig(@Nullable Object value) {
+            if (value != null) {
+                for (OverflowPolicy policy : values()) {
+                    if (policy.name().replace('_', '-').equalsIgnoreCase(value.toString())) {
+                        return policy;
+                    }
+                }
+            }
+            return LATEST;
+        }
+    }
+
+    private static final class Event {
+        final ChannelUID channelUID;
+        State state;
+        final long queuedAt;
+
+        Event(ChannelUID channelUID, State state, long queuedAt) {
+            this.channelUID = channelUID;
+            this.state = state;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private final Executor executor;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final BiConsumer<ChannelUID, State> consumer;
+    private final ThingMetrics metrics;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<Event> queue;
+    /** Queued event per channel, only kept with the {@link OverflowPolicy#LATEST} policy */
+    private final Map<ChannelUID, Event> queued = new HashMap<>();
+    private boolean draining;
+
+    public EventDispatcher(Executor executor, int capacity, OverflowPolicy policy,
+            BiConsumer<ChannelUID, State> consumer, ThingMetrics metrics) {
+        this.executor = executor;
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+        this.consumer = consumer;
+        this.metrics = metrics;
+        this.queue = new ArrayDeque<>(Math.min(this.capacity, 1024));
+    }
+
+    /**
+     * Queues the state for publishing by a worker.
+     */
+    public void dispatch(ChannelUID channelUID, State state) {
+        long now = System.nanoTime();
+        boolean start;
+        synchronized (lock) {
+            if (policy == OverflowPolicy.LATEST) {
+                Event event = queued.get(channelUID);
+                if (event != null) {
+                    event.state = state;
+                    metrics.dispatchReplaced.increment();
+                    return;
+                }
+            }
+            if (queue.size() >= capacity) {
+                Event oldest = queue.poll();
+                if (oldest != null && policy == OverflowPolicy.LATEST) {
+                    queued.remove(oldest.channelUID);
+                }
+                metrics.dispatchDropped.increment();
+            }
+            Event event = new Event(channelUID, state, now);
+            queue.add(event);
+            if (policy == OverflowPolicy.LATEST) {
+                queued.put(channelUID, event);
+            }
+            metrics.dispatchQueueDepth.set(queue.size());
+            metrics.dispatchQueueDepthMax.accumulate(queue.size());
+            start = !draining;
+            draining = true;
+        }
+        if (start) {
+            submit();
+        }
+    }
+
+    private void submit() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Dispatcher pool is shut down, discarding queued states");
+            synchronized (lock) {
+                clear();
+                draining = false;
+            }
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < DRAIN_BATCH; i++) {
+            ChannelUID channelUID;
+            State state;
+            long queuedAt;
+            synchronized (lock) {
+                Event event = queue.poll();
+                if (event == null) {
+                    draining = false;
+                    return;
+                }
+                if (policy == OverflowPolicy.LATEST) {
+                    queued.remove(event.channelUID);
+                }
+                metrics.dispatchQueueDepth.set(queue.size());
+                channelUID = event.channelUID;
+                state = event.state;
+                queuedAt = event.queuedAt;
+            }
+            metrics.dispatchDelay.recordSince(queuedAt);
+            try {
+                consumer.accept(channelUID, state);
+            } catch (RuntimeException e) {
+                logger.warn("Unable to publish state {} of channel {}", state, channelUID, e);
+            }
+        }
+        // more events are queued, continue in a new task to give other devices a turn
+        submit();
+    }
+
+    /**
+     * Discards all queued states. A state being published by a worker right now is still published.
+     */
+    public void clear() {
+        synchronized (lock) {
+            queue.clear();
+            queued.clear();
+            metrics.dispatchQueueDepth.set(0);
+        }
+    }
+
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link EventRecorder} writes the channel events of one thing to a capture file, which can be fed
+ * back through the handler by the {@link EventReplayer}.
+ *
+ * The file starts with {@link #MAGIC}, {@link #VERSION} and the wall clock time of the recording start in
+ * milliseconds. Every record that follows is a type byte, the nanoseconds elapsed since the previous record
+ * as an unsigned varint and the channel index as an unsigned varint, followed by a boolean byte for state
+ * events or a double for sensor events. A channel is declared once, by a {@link #CHANNEL} record carrying
+ * its id, before its first event.
+ *
+ * Events arrive on phidget callback threads, so all writes are serialized on the recorder. Timestamps are
+ * taken under the same lock, which keeps them monotonic in the file. A failed write stops the recording,
+ * so a full disk never affects event handling.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public class EventRecorder implements Closeable {
+    public static final int MAGIC = 0x50484556;
+    public static final byte VERSION = 1;
+
+    public static final byte CHANNEL = 0;
+    public static final byte ATTACH = 1;
+    public static final byte DETACH = 2;
+    public static final byte STATE = 3;
+    public static final byte SENSOR = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(EventRecorder.class);
+
+    private final Path file;
+    private final DataOutputStream out;
+    private final Map<String, Integer> channels = new HashMap<>();
+    private long lastNanos;
+    private boolean closed;
+
+    public EventRecorder(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        lastNanos = System.nanoTime();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized void attach(String channelId) {
+        try {
+            writeHeader(ATTACH, channelId);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized void detach(String channelId) {
+        try {
+            writeHeader(DETACH, channelId);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized void state(String channelId, boolean state) {
+        try {
+            if (writeHeader(STATE, channelId)) {
+                out.writeBoolean(state);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized void sensor(String channelId, double value) {
+        try {
+            if (writeHeader(SENSOR, channelId)) {
+                out.writeDouble(value);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized void flush() {
+        try {
+            if (!closed) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close capture file {}", file, e);
+            }
+        }
+    }
+
+    private void fail(IOException e) {
+        logger.warn("Unable to write to capture file {}, recording stopped", file, e);
+        close();
+    }
+
+    private boolean writeHeader(byte type, String channelId) throws IOException {
+        if (closed) {
+            return false;
+        }
+        long now = System.nanoTime();
+        Integer index = channels.get(channelId);
+        if (index == null) {
+            index = channels.size();
+            channels.put(channelId, index);
+            out.writeByte(CHANNEL);
+            writeVarLong(now - lastNanos);
+            writeVarLong(index);
+            out.writeUTF(channelId);
+            lastNanos = now;
+        }
+        out.writeByte(type);
+        writeVarLong(now - lastNanos);
+        writeVarLong(index);
+        lastNanos = now;
+        return true;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannel;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.openhab.binding.phidgets.internal.EventRecorder.*;
+
+/**
+ * The {@link EventReplayer} feeds a capture file written by the {@link EventRecorder} back into the
+ * {@link SimulatedChannels} that stand in for the phidgets of the replayed thing. Its handler is created with a
+ * channel factory on these channels, so the events take the same path through it as those of the devices.
+ * Events are replayed with their recorded spacing divided by the speed, or back to back when the speed is zero
+ * or less. Events for channels that are not open are skipped.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public class EventReplayer {
+    private final Logger logger = LoggerFactory.getLogger(EventReplayer.class);
+
+    private final Path file;
+    private final double speed;
+    private final SimulatedChannels channels = new SimulatedChannels();
+
+    public EventReplayer(Path file, double speed) {
+        this.file = file;
+        this.speed = speed;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the channels the events are replayed into, whose adapters the channel factory of the replayed
+     *         thing has to create its phidgets with
+     */
+    public SimulatedChannels getChannels() {
+        return channels;
+    }
+
+    /**
+     * Replays the whole file on the calling thread. Stops early if the thread is interrupted.
+     *
+     * @param thingUID the thing the recorded channels belong to
+     * @return the number of events replayed
+     */
+    public long replay(ThingUID thingUID) throws IOException {
+        List<@Nullable ChannelUID> channelUIDs = new ArrayList<>();
+        long events = 0;
+        long skipped = 0;
+        long startNanos = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a phidgets capture file: " + file);
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported capture file version " + version + ": " + file);
+            }
+            long recordedAt = in.readLong();
+            logger.debug("Replaying {} recorded at {} with speed {}", file, recordedAt, speed);
+
+            long elapsedNanos = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                int type = in.read();
+                if (type < 0) {
+                    break;
+                }
+                elapsedNanos += readVarLong(in);
+                int index = (int) readVarLong(in);
+                if (type == CHANNEL) {
+                    while (channelUIDs.size() <= index) {
+                        channelUIDs.add(null);
+                    }
+                    channelUIDs.set(index, new ChannelUID(thingUID, in.readUTF()));
+                    continue;
+                }
+
+                boolean state = false;
+                double value = 0;
+                if (type == STATE) {
+                    state = in.readBoolean();
+                } else if (type == SENSOR) {
+                    value = in.readDouble();
+                } else if (type != ATTACH && type != DETACH) {
+                    throw new IOException("Unknown record type " + type + " in " + file);
+                }
+
+                ChannelUID channelUID = index < channelUIDs.size() ? channelUIDs.get(index) : null;
+                SimulatedChannel channel = channelUID == null ? null : channels.getChannel(channelUID);
+                if (channel == null) {
+                    skipped++;
+                    continue;
+                }
+                if (speed > 0) {
+                    long due = startNanos + (long) (elapsedNanos / speed);
+                    long delay;
+                    while ((delay = due - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                        LockSupport.parkNanos(delay);
+                    }
+                }
+                switch (type) {
+                    case ATTACH:
+                        channel.attach();
+                        break;
+                    case DETACH:
+                        channel.detach();
+                        break;
+                    case STATE:
+                        channel.stateChange(state);
+                        break;
+                    default:
+                        channel.sensorChange(value);
+                }
+                events++;
+            }
+        } catch (EOFException e) {
+            logger.warn("Capture file {} ends with a partial record", file);
+        }
+        logger.debug("Replayed {} events from {} in {} ms, skipped {}", events, file,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), skipped);
+        return events;
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
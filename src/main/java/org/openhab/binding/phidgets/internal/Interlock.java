@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link Interlock} switches an output of a thing directly from the listener of one of its inputs,
+ * without a round trip through the event bus and the rule engine. An interlock is defined as
+ * {@code <input> <condition> -> <output> <action>}, for example {@code di_0 ON -> do_3 OFF} or
+ * {@code port0 >4.5 -> do_1 OFF}. The output may also be a channel of another thing, given as
+ * {@code <thingUID>:<channel>}, for example {@code di_0 ON -> phidgets:phidget_1014:pump:do_0 OFF}.
+ *
+ * Conditions on a digital input are {@code ON} and {@code OFF}. Conditions on a sensor are {@code >value}
+ * and {@code <value}, in the published unit, and trigger when the value crosses the threshold. The
+ * actions are {@code ON}, {@code OFF} and {@code TOGGLE}.
+ *
+ * Evaluating an interlock does not allocate, so it can run on every event of the phidget callback thread.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class Interlock {
+    public enum Action {
+        ON,
+        OFF,
+        TOGGLE
+    }
+
+    private enum Condition {
+        ON,
+        OFF,
+        ABOVE,
+        BELOW
+    }
+
+    private final ChannelUID source;
+    private final Condition condition;
+    private final double threshold;
+    private final ChannelUID target;
+    /** The thing of the output, if it is not the thing of the input */
+    private final @Nullable ThingUID remoteThing;
+    private final Action action;
+    /** Whether the last value met the threshold. Only accessed by the phidget callback thread */
+    private boolean met;
+
+    private Interlock(ChannelUID source, Condition condition, double threshold, ChannelUID target,
+            @Nullable ThingUID remoteThing, Action action) {
+        this.source = source;
+        this.condition = condition;
+        this.threshold = threshold;
+        this.target = target;
+        this.remoteThing = remoteThing;
+        this.action = action;
+    }
+
+    public ChannelUID getSource() {
+        return source;
+    }
+
+    public ChannelUID getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the thing of the output if it is another thing than the one of the input, or null
+     */
+    public @Nullable ThingUID getRemoteThing() {
+        return remoteThing;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * @return true if the interlock acts on digital states, false if on sensor values
+     */
+    public boolean isDigital() {
+        return condition == Condition.ON || condition == Condition.OFF;
+    }
+
+    /**
+     * @return the state the action sets the output to, or null to toggle it
+     */
+    public @Nullable OnOffType getState() {
+        return action == Action.TOGGLE ? null : action == Action.ON ? OnOffType.ON : OnOffType.OFF;
+    }
+
+    /**
+     * @return true if the state of the digital input triggers the interlock
+     */
+    public boolean onState(boolean state) {
+        return condition == (state ? Condition.ON : Condition.OFF);
+    }
+
+    /**
+     * @return true if the sensor value crossed the threshold. A first value beyond the threshold counts as
+     *         crossing it, so an output is also switched when the sensor attaches in the alarm range.
+     */
+    public boolean onValue(double value) {
+        boolean wasMet = met;
+        met = condition == Condition.ABOVE ? value > threshold : condition == Condition.BELOW && value < threshold;
+        return met && !wasMet;
+    }
+
+    /**
+     * Forgets the last sensor value, so the next value beyond the threshold triggers again.
+     */
+    public void reset() {
+        met = false;
+    }
+
+    /**
+     * Parses the interlocks of a thing configuration, separated by semicolons or line breaks.
+     *
+     * @throws IllegalArgumentException if one of the definitions is invalid
+     */
+    public static List<Interlock> fromConfig(ThingUID thingUID, @Nullable Object value) {
+        List<Interlock> interlocks = new ArrayList<>();
+        if (value == null) {
+            return interlocks;
+        }
+        for (String definition : value.toString().split("[;\\n]")) {
+            if (!definition.trim().isEmpty()) {
+                interlocks.add(parse(thingUID, definition.trim()));
+            }
+        }
+        return interlocks;
+    }
+
+    private static Interlock parse(ThingUID thingUID, String definition) {
+        String[] sides = definition.split("->");
+        String[] input = sides[0].trim().split("\\s+");
+        String[] output = sides.length == 2 ? sides[1].trim().split("\\s+") : new String[0];
+        if (input.length != 2 || output.length != 2) {
+            throw new IllegalArgumentException("Interlock must be given as <input> <condition> -> <output> "
+                    + "<action>: " + definition);
+        }
+        Condition condition;
+        double threshold = 0;
+        String term = input[1].toUpperCase();
+        if (term.startsWith(">") || term.startsWith("<")) {
+            condition = term.startsWith(">") ? Condition.ABOVE : Condition.BELOW;
+            try {
+                threshold = Double.parseDouble(term.substring(1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid threshold " + term.substring(1));
+            }
+        } else if (term.equals("ON") || term.equals("OFF")) {
+            condition = Condition.valueOf(term);
+        } else {
+            throw new IllegalArgumentException("Interlock condition must be ON, OFF, >value or <value: " + term);
+        }
+        Action action;
+        try {
+            action = Action.valueOf(output[1].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Interlock action must be ON, OFF or TOGGLE: " + output[1]);
+        }
+        ChannelUID target = new ChannelUID(thingUID, output[0]);
+        ThingUID remoteThing = null;
+        if (output[0].contains(":")) {
+            try {
+                target = new ChannelUID(output[0]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Interlock output must be a channel id or <thingUID>:<channel>: "
+                        + output[0]);
+            }
+            if (!target.getThingUID().equals(thingUID)) {
+                remoteThing = target.getThingUID();
+            }
+        }
+        return new Interlock(new ChannelUID(thingUID, input[0]), condition, threshold, target, remoteThing,
+                action);
+    }
+
+    @Override
+    public String toString() {
+        return source.getId() + " " + (condition == Condition.ABOVE ? ">" + threshold
+                : condition == Condition.BELOW ? "<" + threshold : condition.name()) + " -> "
+                + (remoteThing == null ? target.getId() : target.getAsString()) + " " + action;
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link InterlockRegistry} keeps the initialized handlers that interlocks of other things switch their
+ * outputs through, and the outputs switched that way. It is shared by all things of the binding, including
+ * replayed things whose phidgets come from a channel factory of their own.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class InterlockRegistry {
+    private final Map<ThingUID, PhidgetsHandler> handlers = new ConcurrentHashMap<>();
+    /** The outputs switched by interlocks of other things, by the thing of the interlocks */
+    private final Map<ThingUID, Set<ChannelUID>> interlockOutputs = new ConcurrentHashMap<>();
+
+    public void addHandler(ThingUID thingUID, PhidgetsHandler handler) {
+        handlers.put(thingUID, handler);
+    }
+
+    public void removeHandler(ThingUID thingUID, PhidgetsHandler handler) {
+        handlers.remove(thingUID, handler);
+    }
+
+    /**
+     * @return the initialized handler of the given thing, or null if there is none
+     */
+    public @Nullable PhidgetsHandler getHandler(ThingUID thingUID) {
+        return handlers.get(thingUID);
+    }
+
+    /**
+     * Sets the outputs of other things that the interlocks of the given thing switch, replacing those set
+     * before.
+     */
+    public void setInterlockOutputs(ThingUID thingUID, Set<ChannelUID> outputs) {
+        if (outputs.isEmpty()) {
+            interlockOutputs.remove(thingUID);
+        } else {
+            interlockOutputs.put(thingUID, outputs);
+        }
+    }
+
+    /**
+     * @return true if an interlock of another thing switches the given output
+     */
+    public boolean isInterlockOutput(ChannelUID channelUID) {
+        for (Set<ChannelUID> outputs : interlockOutputs.values()) {
+            if (outputs.contains(channelUID)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.openhab.binding.phidgets.internal.adapter.PhidgetChannel;
+import org.openhab.binding.phidgets.internal.adapter.PhidgetChannelAdapter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The {@link PhidgetChannelBinding} is the resolved link between a thing channel and its phidget.
+ * It is built once when the handler initializes, so handling a command needs no property parsing,
+ * channel type resolution, adapter or factory lookup. Apart from the phidget and the attached and opened
+ * flags, which follow the links of the channel, and the channel and its processing stages, which are replaced
+ * in place when its configuration changes, a binding is immutable.
+ *
+ * A binding has no phidget while its channel is not linked.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class PhidgetChannelBinding {
+    private volatile Channel channel;
+    private final PhidgetChannelKey key;
+    private volatile @Nullable PhidgetChannel phidget;
+    private final PhidgetChannelAdapter adapter;
+    private volatile @Nullable SensorCoalescer coalescer;
+    private volatile @Nullable SampleRingBuffer samples;
+    private volatile @Nullable SampleJournal journal;
+    private volatile Calibration calibration;
+    private volatile @Nullable PulseCounter counter;
+    private final ChannelMetrics metrics;
+
+    private final AtomicBoolean opened = new AtomicBoolean();
+    private final AtomicBoolean attached = new AtomicBoolean();
+
+    public PhidgetChannelBinding(Channel channel, PhidgetChannelKey key, PhidgetChannelAdapter adapter,
+            @Nullable SensorCoalescer coalescer, @Nullable SampleRingBuffer samples, @Nullable SampleJournal journal,
+            Calibration calibration, @Nullable PulseCounter counter, ChannelMetrics metrics) {
+        this.channel = channel;
+        this.key = key;
+        this.adapter = adapter;
+        this.coalescer = coalescer;
+        this.samples = samples;
+        this.journal = journal;
+        this.calibration = calibration;
+        this.counter = counter;
+        this.metrics = metrics;
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Replaces the channel with an updated version of it. The key of the channel must not change.
+     */
+    public void setChannel(Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Takes over the channel and the processing stages of the given binding, built for an updated version of
+     * the channel with the same key. The phidget with its listeners, the attached and opened flags and the
+     * metrics stay, so an open phidget keeps running while its values go to the new stages.
+     */
+    public void update(PhidgetChannelBinding binding) {
+        this.channel = binding.channel;
+        this.coalescer = binding.coalescer;
+        this.samples = binding.samples;
+        this.journal = binding.journal;
+        this.calibration = binding.calibration;
+        this.counter = binding.counter;
+    }
+
+    public ChannelUID getUID() {
+        return channel.getUID();
+    }
+
+    public PhidgetChannelKey getKey() {
+        return key;
+    }
+
+    public String getChannelTypeId() {
+        return key.getChannelTypeId();
+    }
+
+    public @Nullable PhidgetChannel getPhidget() {
+        return phidget;
+    }
+
+    /**
+     * Sets the phidget backing the channel, or removes it with null. The phidget has to be opened anew.
+     */
+    public void setPhidget(@Nullable PhidgetChannel phidget) {
+        this.phidget = phidget;
+        opened.set(false);
+    }
+
+    /**
+     * @return the adapter of the phidget class backing the channel, which created its phidget
+     */
+    public PhidgetChannelAdapter getAdapter() {
+        return adapter;
+    }
+
+    public boolean isAttached() {
+        return attached.get();
+    }
+
+    /**
+     * @return true if the attached state changed
+     */
+    public boolean setAttached(boolean attached) {
+        return this.attached.getAndSet(attached) != attached;
+    }
+
+    /**
+     * Marks the phidget as opened. A phidget keeps trying to attach until it is closed, so it only ever
+     * needs to be opened once.
+     *
+     * @return true if the phidget was not opened before and should be opened now
+     */
+    public boolean markOpened() {
+        return opened.compareAndSet(false, true);
+    }
+
+    public boolean isOpened() {
+        return opened.get();
+    }
+
+    /**
+     * @return the coalescing stage for sensor values, or null if the channel is not a sensor channel
+     */
+    public @Nullable SensorCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    /**
+     * @return the sample buffer feeding statistic channels, or null if no statistic channel uses this channel
+     */
+    public @Nullable SampleRingBuffer getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return the journal of the raw samples, or null if the channel has no journal
+     */
+    public @Nullable SampleJournal getJournal() {
+        return journal;
+    }
+
+    public Calibration getCalibration() {
+        return calibration;
+    }
+
+    /**
+     * @return the edge counter of a digital input in counter mode, or null if the channel publishes its states
+     */
+    public @Nullable PulseCounter getCounter() {
+        return counter;
+    }
+
+    public ChannelMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the number of sensor values held back by the deadband of the coalescing stage
+     */
+    public long getDropped() {
+        SensorCoalescer coalescer = this.coalescer;
+        return coalescer == null ? 0 : coalescer.getDropped();
+    }
+
+    /**
+     * Passes a sensor sample on to the journal as is, and calibrated to the sample buffer and the coalescing
+     * stage. Called from the phidget callback thread.
+     */
+    public void onSample(double raw) {
+        double value = calibration.apply(raw);
+        SampleJournal journal = this.journal;
+        SampleRingBuffer samples = this.samples;
+        if (journal != null || samples != null) {
+            long now = System.nanoTime();
+            if (journal != null) {
+                journal.append(now, raw);
+            }
+            if (samples != null) {
+                samples.add(now, value);
+            }
+        }
+        SensorCoalescer coalescer = this.coalescer;
+        if (coalescer != null) {
+            coalescer.offer(value);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link PhidgetChannelKey} identifies a single Phidget channel by serial number, channel type,
+ * channel index and hub port. Keys are immutable and cache their hash code, so they can be created
+ * once per channel and reused for every registry lookup.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class PhidgetChannelKey {
+    public static final int NONE = -1;
+
+    private final int serialNumber;
+    private final String channelTypeId;
+    private final int channel;
+    private final int hubPort;
+    private final int hash;
+
+    public PhidgetChannelKey(int serialNumber, String channelTypeId, int channel, int hubPort) {
+        this.serialNumber = serialNumber;
+        this.channelTypeId = channelTypeId;
+        this.channel = channel;
+        this.hubPort = hubPort;
+
+        int h = serialNumber;
+        h = 31 * h + channelTypeId.hashCode();
+        h = 31 * h + channel;
+        h = 31 * h + hubPort;
+        this.hash = h;
+    }
+
+    public int getSerialNumber() {
+        return serialNumber;
+    }
+
+    public String getChannelTypeId() {
+        return channelTypeId;
+    }
+
+    public int getChannel() {
+        return channel;
+    }
+
+    public boolean hasChannel() {
+        return channel != NONE;
+    }
+
+    public int getHubPort() {
+        return hubPort;
+    }
+
+    public boolean isHubPort() {
+        return hubPort != NONE;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PhidgetChannelKey)) {
+            return false;
+        }
+        PhidgetChannelKey other = (PhidgetChannelKey) obj;
+        return hash == other.hash && serialNumber == other.serialNumber && channel == other.channel
+                && hubPort == other.hubPort && channelTypeId.equals(other.channelTypeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return serialNumber + "_" + channelTypeId + "_" + channel + (isHubPort() ? "@" + hubPort : "");
+    }
+}
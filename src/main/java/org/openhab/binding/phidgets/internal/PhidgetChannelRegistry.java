@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * The {@link PhidgetChannelRegistry} holds one lazily created instance per {@link PhidgetChannelKey}.
+ * Creation is atomic per key and runs on the given executor, so concurrent requests for the same channel
+ * always share one instance while different channels are created in parallel. A creation that yields
+ * null or fails is forgotten, so the next request retries.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public class PhidgetChannelRegistry<T> {
+    private final ConcurrentMap<PhidgetChannelKey, CompletableFuture<@Nullable T>> entries = new ConcurrentHashMap<>();
+
+    private final Function<PhidgetChannelKey, @Nullable T> creator;
+    private final Executor executor;
+
+    public PhidgetChannelRegistry(Function<PhidgetChannelKey, @Nullable T> creator, Executor executor) {
+        this.creator = creator;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<@Nullable T> get(PhidgetChannelKey key) {
+        CompletableFuture<@Nullable T> future = entries.get(key);
+        if (future != null) {
+            return future;
+        }
+        CompletableFuture<@Nullable T> created = new CompletableFuture<>();
+        future = entries.putIfAbsent(key, created);
+        if (future != null) {
+            return future;
+        }
+        // The failed entry is removed before the future completes, so no caller can observe a failure
+        // and still get the same failed future back on its next request.
+        try {
+            executor.execute(() -> {
+                @Nullable
+                T value;
+                try {
+                    value = creator.apply(key);
+                } catch (RuntimeException e) {
+                    entries.remove(key, created);
+                    created.completeExceptionally(e);
+                    return;
+                }
+                if (value == null) {
+                    entries.remove(key, created);
+                }
+                created.complete(value);
+            });
+        } catch (RejectedExecutionException e) {
+            entries.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    /**
+     * Requests all given keys at once. The returned future completes when every key has been resolved;
+     * keys without an instance or whose creation failed are left out of the resulting map.
+     */
+    public CompletableFuture<Map<PhidgetChannelKey, T>> getAll(Collection<PhidgetChannelKey> keys) {
+        Map<PhidgetChannelKey, CompletableFuture<@Nullable T>> futures = new HashMap<>();
+        for (PhidgetChannelKey key : keys) {
+            futures.put(key, get(key).exceptionally(e -> null));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()]))
+                .thenApply(v -> {
+                    Map<PhidgetChannelKey, T> result = new HashMap<>();
+                    futures.forEach((key, future) -> {
+                        T value = future.join();
+                        if (value != null) {
+                            result.put(key, value);
+                        }
+                    });
+                    return result;
+                });
+    }
+
+    /**
+     * Forgets the instance for the given key.
+     *
+     * @return the future of the removed instance, or null if there was none
+     */
+    public @Nullable CompletableFuture<@Nullable T> remove(PhidgetChannelKey key) {
+        return entries.remove(key);
+    }
+}
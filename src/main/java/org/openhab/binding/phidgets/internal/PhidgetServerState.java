@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link PhidgetServerState} is the registration state of one Phidget22 network server, either discovered
+ * over mDNS or configured statically. Once a server is registered, the library connects to it and reconnects
+ * after a lost connection on its own; it reports no connection events, so the state does not tell whether
+ * a registered server is connected right now.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class PhidgetServerState {
+    public enum Status {
+        /** Static server waiting to be registered with the library */
+        PENDING,
+        /** Server registered with the library, whether or not it is connected */
+        REGISTERED,
+        /** Discovered server that is no longer announced */
+        REMOVED,
+        /** Static server that could not be registered, registered again after the backoff */
+        FAILED
+    }
+
+    private final String name;
+    private final String host;
+    private final int port;
+    private final boolean configured;
+
+    private volatile Status status = Status.PENDING;
+    private volatile int failures;
+    private volatile long backoffMillis;
+    private volatile long changedMillis = System.currentTimeMillis();
+    private volatile @Nullable String error;
+
+    PhidgetServerState(String name, String host, int port, boolean configured) {
+        this.name = name;
+        this.host = host;
+        this.port = port;
+        this.configured = configured;
+    }
+
+    void registered() {
+        status = Status.REGISTERED;
+        failures = 0;
+        backoffMillis = 0;
+        error = null;
+        changedMillis = System.currentTimeMillis();
+    }
+
+    void removed() {
+        status = Status.REMOVED;
+        changedMillis = System.currentTimeMillis();
+    }
+
+    void failed(String error, long backoffMillis) {
+        this.status = Status.FAILED;
+        this.failures++;
+        this.backoffMillis = backoffMillis;
+        this.error = error;
+        this.changedMillis = System.currentTimeMillis();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Returns whether the server is configured in the binding rather than discovered.
+     */
+    public boolean isConfigured() {
+        return configured;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the number of consecutive failed attempts to register the server.
+     */
+    public int getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the delay before the next attempt to register the server, zero unless it failed.
+     */
+    public long getBackoffMillis() {
+        return backoffMillis;
+    }
+
+    public long getChangedMillis() {
+        return changedMillis;
+    }
+
+    public @Nullable String getError() {
+        return error;
+    }
+}
@@ -1,110 +1,150 @@
 package org.openhab.binding.phidgets.internal;
 
-import com.phidget22.*;
+import com.phidget22.PhidgetException;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+import org.openhab.binding.phidgets.internal.adapter.PhidgetChannel;
+import org.openhab.binding.phidgets.internal.adapter.PhidgetChannelAdapter;
+import org.openhab.binding.phidgets.internal.adapter.PhidgetChannelAdapters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
 
 public class PhidgetsChannelFactory {
     private static final Logger logger = LoggerFactory.getLogger(PhidgetsChannelFactory.class);
 
-    private final ScheduledExecutorService backgroundScheduler = Executors.newSingleThreadScheduledExecutor();
+    public static final long ACQUIRE_TIMEOUT_MS = 4000;
 
-    private static final Map<String, Phidget> phidgets = new HashMap<>();
+    private final PhidgetChannelRegistry<PhidgetChannel> phidgets = new PhidgetChannelRegistry<>(
+            this::createPhidget, ThreadPoolManager.getPool(BINDING_ID));
+    private final Function<String, PhidgetChannelAdapter> adapters;
+    private final InterlockRegistry interlocks;
 
-    @Nullable
-    private static Phidget getFromMap(int serialNumber, String channelTypeId, int channelIdx) {
-        logger.debug("[{}] Getting from map {} {}", serialNumber, channelTypeId, channelIdx);
-        return phidgets.get(String.format("%d_%s_%d", serialNumber, channelTypeId, channelIdx));
+    public PhidgetsChannelFactory() {
+        this(PhidgetChannelAdapters::forChannelType);
     }
 
-    private static void addToMap(int serialNumber, String channelTypeId, int channelIdx, Phidget phidget) {
-        phidgets.put(String.format("%d_%s_%d", serialNumber, channelTypeId, channelIdx), phidget);
+    /**
+     * Creates a factory whose phidgets are created by the given adapters instead of those of the phidget
+     * classes, such as the adapters of {@link org.openhab.binding.phidgets.internal.adapter.SimulatedChannels}.
+     *
+     * @param adapters the adapters by the resolved channel type, {@link PhidgetChannelAdapters#NONE} for channel
+     *            types without a phidget
+     */
+    public PhidgetsChannelFactory(Function<String, PhidgetChannelAdapter> adapters) {
+        this(adapters, new InterlockRegistry());
     }
 
-    private static void removeFromMap(int serialNumber, String channelTypeId, int channelIdx) {
-        phidgets.remove(String.format("%d_%s_%d", serialNumber, channelTypeId, channelIdx));
+    /**
+     * Creates a factory whose phidgets are created by the given adapters, for things whose interlocks reach the
+     * things of another factory through the given registry.
+     */
+    public PhidgetsChannelFactory(Function<String, PhidgetChannelAdapter> adapters, InterlockRegistry interlocks) {
+        this.adapters = adapters;
+        this.interlocks = interlocks;
     }
 
-    public void getPhidgetChannel(PhidgetChannelRequest request) {
-        backgroundScheduler.schedule(() -> {
-            logger.debug("[{}] Processing request for phidget {} {}", request.getSerialNumber(), request.getChannelTypeId(), request.getChannel());
-            Phidget phidget = getFromMap(request.getSerialNumber(), request.getChannelTypeId(), request.getChannel());
-            if (phidget == null) {
-                logger.debug("[{}] Creating phidget for request {} {}", request.getSerialNumber(), request.getChannelTypeId(), request.getChannel());
-                try {
-                    switch (request.getChannelTypeId()) {
-                        case CHANNEL_VOLTAGE_INPUT_ID:
-                            logger.debug("[{}] Phidget is voltage input channel {}", request.getSerialNumber(), request.getChannel());
-                            VoltageInput vin = new VoltageInput();
-                            vin.setDeviceSerialNumber(request.getSerialNumber());
-                            if (request.getChannel() != null) {
-                                vin.setChannel(request.getChannel());
-                            }
-                            phidget = vin;
-                            break;
-                        case CHANNEL_VOLTAGE_RATIO_INPUT_ID:
-                            logger.debug("[{}] Phidget is voltage ratio input channel {}", request.getSerialNumber(), request.getChannel());
-                            VoltageRatioInput vri = new VoltageRatioInput();
-                            vri.setDeviceSerialNumber(request.getSerialNumber());
-                            if (request.getChannel() != null) {
-                                vri.setChannel(request.getChannel());
-                            }
-                            phidget = vri;
-                            break;
-                        case CHANNEL_DIGITAL_INPUT_ID:
-                            logger.debug("[{}] Phidget is digital input channel {}", request.getSerialNumber(), request.getChannel());
-                            DigitalInput in = new DigitalInput();
-                            in.setDeviceSerialNumber(request.getSerialNumber());
-                            if (request.getChannel() != null) {
-                                in.setChannel(request.getChannel());
-                            }
-                            phidget = in;
-                            break;
-                        case CHANNEL_DIGITAL_OUTPUT_ID:
-                            logger.debug("[{}] Phidget is digital output channel {}", request.getSerialNumber(), request.getChannel());
-                            DigitalOutput out = new DigitalOutput();
-                            out.setDeviceSerialNumber(request.getSerialNumber());
-                            if (request.getChannel() != null) {
-                                out.setChannel(request.getChannel());
-                            }
-                            phidget = out;
-                            break;
-                    }
-                    if (phidget != null) {
-                        addToMap(request.getSerialNumber(), request.getChannelTypeId(), request.getChannel(), phidget);
-                    } else {
-                        logger.debug("[{}] No phidget for channel {} {}", request.getSerialNumber(), request.getChannelTypeId(), request.getChannel());
-                    }
-                } catch (PhidgetException e) {
-                    logger.error("[{}] Unable to create phidget with type {} for channel {}", request.getSerialNumber(),
-                            request.getChannelTypeId(), request.getChannel(), e);
-                }
-            } else {
-                logger.debug("[{}] Existing phidget found {} {}", request.getSerialNumber(), request.getChannelTypeId(), request.getChannel());
-            }
-            request.setPhidget(phidget);
-        }, 0, TimeUnit.SECONDS);
+    /**
+     * @return the adapter of the given resolved channel type, which creates the phidgets of its channels
+     */
+    public PhidgetChannelAdapter getAdapter(String channelTypeId) {
+        return adapters.apply(channelTypeId);
+    }
+
+    /**
+     * @return the registry of the handlers and interlock outputs of the things of this factory
+     */
+    public InterlockRegistry getInterlocks() {
+        return interlocks;
     }
 
-    public void disposePhidgetChannel(int serialNumber, String channelTypeId, int channelNumber) {
-        Phidget phidget = getFromMap(serialNumber, channelTypeId, channelNumber);
-        if (phidget != null) {
-            try {
-                phidget.close();
-                removeFromMap(serialNumber, channelTypeId, channelNumber);
-            } catch (PhidgetException e) {
-                logger.warn("Could not close phidget", e);
+    /**
+     * Returns a future for the phidget registered for the given key, starting its creation if this is
+     * the first request for it. The future completes with null if no phidget could be created.
+     */
+    public CompletableFuture<PhidgetChannel> getPhidgetChannel(PhidgetChannelKey key) {
+        return phidgets.get(key);
+    }
+
+    /**
+     * Requests all given channels at once. The returned future completes when every channel has been
+     * resolved; channels without a phidget are left out of the resulting map.
+     */
+    public CompletableFuture<Map<PhidgetChannelKey, PhidgetChannel>> getPhidgetChannels(
+            Collection<PhidgetChannelKey> keys) {
+        return phidgets.getAll(keys);
+    }
+
+    @Nullable
+    private PhidgetChannel createPhidget(PhidgetChannelKey key) {
+        logger.debug("[{}] Creating phidget for request {}", key.getSerialNumber(), key);
+        try {
+            PhidgetChannelAdapter adapter = getAdapter(key.getChannelTypeId());
+            if (adapter == PhidgetChannelAdapters.NONE) {
+                logger.debug("[{}] No phidget for channel {}", key.getSerialNumber(), key);
+                return null;
             }
+            logger.debug("[{}] Phidget is {} channel {}", key.getSerialNumber(), adapter, key.getChannel());
+            return adapter.createChannel(key);
+        } catch (PhidgetException e) {
+            logger.error("[{}] Unable to create phidget with type {} for channel {}", key.getSerialNumber(),
+                    key.getChannelTypeId(), key.getChannel(), e);
+            return null;
+        }
+    }
+
+    public void disposePhidgetChannel(PhidgetChannelKey key) {
+        CompletableFuture<PhidgetChannel> future = phidgets.remove(key);
+        if (future != null) {
+            future.thenAccept(phidget -> {
+                if (phidget != null) {
+                    try {
+                        phidget.close();
+                    } catch (PhidgetException e) {
+                        logger.warn("Could not close phidget", e);
+                    }
+                }
+            });
         }
     }
 
+    public void addHandler(ThingUID thingUID, PhidgetsHandler handler) {
+        interlocks.addHandler(thingUID, handler);
+    }
+
+    public void removeHandler(ThingUID thingUID, PhidgetsHandler handler) {
+        interlocks.removeHandler(thingUID, handler);
+    }
+
+    /**
+     * @return the initialized handler of the given thing, or null if there is none
+     */
+    public @Nullable PhidgetsHandler getHandler(ThingUID thingUID) {
+        return interlocks.getHandler(thingUID);
+    }
+
+    /**
+     * Sets the outputs of other things that the interlocks of the given thing switch, replacing those set
+     * before. The handlers of these outputs keep them open whether they are linked or not.
+     */
+    public void setInterlockOutputs(ThingUID thingUID, Set<ChannelUID> outputs) {
+        interlocks.setInterlockOutputs(thingUID, outputs);
+    }
+
+    /**
+     * @return true if an interlock of another thing switches the given output
+     */
+    public boolean isInterlockOutput(ChannelUID channelUID) {
+        return interlocks.isInterlockOutput(channelUID);
+    }
 }
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingRegistry;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
+import org.eclipse.smarthome.io.console.Console;
+import org.eclipse.smarthome.io.console.extensions.AbstractConsoleCommandExtension;
+import org.eclipse.smarthome.io.console.extensions.ConsoleCommandExtension;
+import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.BINDING_ID;
+
+/**
+ * The {@link PhidgetsConsoleCommandExtension} adds the phidgets command to the console, which dumps the
+ * runtime metrics of the phidget things.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@Component(service = ConsoleCommandExtension.class)
+@NonNullByDefault
+public class PhidgetsConsoleCommandExtension extends AbstractConsoleCommandExtension {
+    private static final String SUBCMD_METRICS = "metrics";
+    private static final String SUBCMD_SERVERS = "servers";
+    private static final String SUBCMD_EXPORT = "export";
+
+    private @Nullable ThingRegistry thingRegistry;
+    private @Nullable PhidgetsNetworkService networkService;
+
+    public PhidgetsConsoleCommandExtension() {
+        super(BINDING_ID, "Inspect the Phidgets binding.");
+    }
+
+    @Reference
+    protected void setThingRegistry(ThingRegistry thingRegistry) {
+        this.thingRegistry = thingRegistry;
+    }
+
+    protected void unsetThingRegistry(ThingRegistry thingRegistry) {
+        this.thingRegistry = null;
+    }
+
+    @Reference
+    protected void setNetworkService(PhidgetsNetworkService networkService) {
+        this.networkService = networkService;
+    }
+
+    protected void unsetNetworkService(PhidgetsNetworkService networkService) {
+        this.networkService = null;
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        PhidgetsNetworkService networkService = this.networkService;
+        if (args.length > 0 && SUBCMD_SERVERS.equals(args[0]) && networkService != null) {
+            printServers(console, networkService);
+            return;
+        }
+        ThingRegistry thingRegistry = this.thingRegistry;
+        if (args.length > 0 && SUBCMD_EXPORT.equals(args[0]) && thingRegistry != null) {
+            export(args, console, thingRegistry);
+            return;
+        }
+        if (args.length == 0 || !SUBCMD_METRICS.equals(args[0]) || thingRegistry == null) {
+            printUsage(console);
+            return;
+        }
+        boolean found = false;
+        for (Thing thing : thingRegistry.getAll()) {
+            ThingHandler handler = thing.getHandler();
+            if (handler instanceof PhidgetsHandler
+                    && (args.length < 2 || thing.getUID().getAsString().equals(args[1]))) {
+                printMetrics(console, thing, (PhidgetsHandler) handler);
+                found = true;
+            }
+        }
+        if (!found) {
+            console.println(args.length < 2 ? "No phidget things are initialized" : "Unknown thing " + args[1]);
+        }
+    }
+
+    private void printMetrics(Console console, Thing thing, PhidgetsHandler handler) {
+        ThingMetrics thingMetrics = handler.getMetrics();
+        console.println(String.format("%s (%s), acquisition wait %.1f ms, output restore %.1f/%.1f ms (mean/max)",
+                thing.getUID().getAsString(), thing.getStatus(), thingMetrics.acquisitionWait.getMeanNanos() / 1e6,
+                thingMetrics.outputRestore.getMeanNanos() / 1e6, thingMetrics.outputRestore.getMaxNanos() / 1e6));
+        console.println("  startup " + handler.getStartupTimes());
+        if (thingMetrics.groupCommand.getCount() > 0) {
+            console.println(String.format("  group commands %d, %.1f/%.1f ms (mean/max)",
+                    thingMetrics.groupCommand.getCount(), thingMetrics.groupCommand.getMeanNanos() / 1e6,
+                    thingMetrics.groupCommand.getMaxNanos() / 1e6));
+        }
+        if (thingMetrics.interlockReaction.getCount() > 0 || thingMetrics.interlocksMissed.sum() > 0) {
+            console.println(String.format("  interlocks tripped %d, reaction %.1f/%.1f us (mean/max), missed %d",
+                    thingMetrics.interlockReaction.getCount(), thingMetrics.interlockReaction.getMeanNanos() / 1e3,
+                    thingMetrics.interlockReaction.getMaxNanos() / 1e3, thingMetrics.interlocksMissed.sum()));
+        }
+        EventDispatcher dispatcher = handler.getDispatcher();
+        if (dispatcher != null) {
+            console.println(String.format(
+                    "  dispatcher %s, queue %d/%d (max %d), delay %.1f/%.1f ms (mean/max), dropped %d, replaced %d",
+                    dispatcher.getPolicy(), dispatcher.getQueueDepth(), dispatcher.getCapacity(),
+                    thingMetrics.dispatchQueueDepthMax.get(), thingMetrics.dispatchDelay.getMeanNanos() / 1e6,
+                    thingMetrics.dispatchDelay.getMaxNanos() / 1e6, thingMetrics.dispatchDropped.sum(),
+                    thingMetrics.dispatchReplaced.sum()));
+        }
+        console.println(String.format("  %-20s %-8s %10s %10s %10s %9s %9s %9s %9s %9s %7s", "channel",
+                "attached", "received", "published", "dropped", "lsn us", "lsn max", "acq us", "write us",
+                "write max", "att/det"));
+        for (PhidgetChannelBinding binding : handler.getBindings()) {
+            ChannelMetrics metrics = binding.getMetrics();
+            console.println(String.format("  %-20s %-8s %10d %10d %10d %9.1f %9.1f %9.1f %9.1f %9.1f %3d/%-3d",
+                    binding.getUID().getId(), binding.isAttached(), metrics.received.sum(), metrics.published.sum(),
+                    binding.getDropped(), metrics.listener.getMeanNanos() / 1e3,
+                    metrics.listener.getMaxNanos() / 1e3, metrics.commandAcquire.getMeanNanos() / 1e3,
+                    metrics.commandWrite.getMeanNanos() / 1e3, metrics.commandWrite.getMaxNanos() / 1e3,
+                    metrics.attaches.sum(), metrics.detaches.sum()));
+            if (metrics.pulseJitter.getCount() > 0 || metrics.pulsesDeferred.sum() > 0) {
+                console.println(String.format("    pulses %d, jitter %.1f/%.1f us (mean/max), deferred %d",
+                        metrics.pulseJitter.getCount(), metrics.pulseJitter.getMeanNanos() / 1e3,
+                        metrics.pulseJitter.getMaxNanos() / 1e3, metrics.pulsesDeferred.sum()));
+            }
+        }
+    }
+
+    private void export(String[] args, Console console, ThingRegistry thingRegistry) {
+        if (args.length != 6) {
+            printUsage(console);
+            return;
+        }
+        Thing thing = thingRegistry.get(new ThingUID(args[1]));
+        ThingHandler handler = thing == null ? null : thing.getHandler();
+        if (thing == null || !(handler instanceof PhidgetsHandler)) {
+            console.println("Unknown thing " + args[1]);
+            return;
+        }
+        PhidgetChannelBinding binding = ((PhidgetsHandler) handler)
+                .getBinding(new ChannelUID(thing.getUID(), args[2]));
+        SampleJournal journal = binding == null ? null : binding.getJournal();
+        if (journal == null) {
+            console.println("Channel " + args[2] + " has no journal");
+            return;
+        }
+        long from;
+        long to;
+        try {
+            from = parseTime(args[3]);
+            to = parseTime(args[4]);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            console.println("Times must be ISO-8601 instants or epoch milliseconds: " + e.getMessage());
+            return;
+        }
+        Path file = Paths.get(args[5]);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long count = journal.export(from, to, out);
+            console.println(String.format("Exported %d samples to %s", count, file));
+        } catch (IOException e) {
+            console.println("Unable to export to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the epoch nanos of an ISO-8601 instant or epoch milliseconds
+     */
+    private static long parseTime(String time) {
+        Instant instant = time.matches("\\d+") ? Instant.ofEpochMilli(Long.parseLong(time)) : Instant.parse(time);
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+    }
+
+    private void printServers(Console console, PhidgetsNetworkService networkService) {
+        Collection<PhidgetServerState> servers = networkService.getServers();
+        if (servers.isEmpty()) {
+            console.println("No phidget servers are known");
+            return;
+        }
+        console.println(String.format("%-30s %-24s %-10s %-10s %8s %10s  %s", "server", "address", "origin",
+                "status", "failures", "retry in s", "error"));
+        for (PhidgetServerState server : servers) {
+            String error = server.getError();
+            console.println(String.format("%-30s %-24s %-10s %-10s %8d %10d  %s", server.getName(),
+                    server.getHost() + ":" + server.getPort(), server.isConfigured() ? "configured" : "discovered",
+                    server.getStatus(), server.getFailures(), server.getBackoffMillis() / 1000,
+                    error == null ? "" : error));
+        }
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return Arrays.asList(buildCommandUsage(SUBCMD_METRICS + " [<thingUID>]",
+                "dumps event counts and hot path timings of all or the given phidget thing"),
+                buildCommandUsage(SUBCMD_SERVERS, "lists the phidget network servers and their registration state"),
+                buildCommandUsage(SUBCMD_EXPORT + " <thingUID> <channelId> <from> <to> <file>",
+                        "exports the journaled samples of a channel between two times as CSV"));
+    }
+}
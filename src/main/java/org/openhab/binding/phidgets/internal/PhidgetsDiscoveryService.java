@@ -1,23 +1,22 @@
 package org.openhab.binding.phidgets.internal;
 
 import com.phidget22.*;
-import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.config.discovery.AbstractDiscoveryService;
+import org.eclipse.smarthome.config.discovery.DiscoveryResult;
 import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.phidgets.PhidgetsBindingConstants;
-import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 
 import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
 
@@ -25,119 +24,219 @@ import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
 public class PhidgetsDiscoveryService extends AbstractDiscoveryService {
     private final Logger logger = LoggerFactory.getLogger(PhidgetsDiscoveryService.class);
 
-    private Manager manager;
+    private @Nullable Manager manager;
+    private boolean background;
+
+    /** Number of attached channels per device serial number */
+    private final Map<Integer, Integer> attachedChannels = new HashMap<>();
+    private final Map<Integer, DiscoveryResult> discovered = new HashMap<>();
 
     public PhidgetsDiscoveryService() {
-        super(SUPPORTED_THING_TYPES_UIDS, 30);
+        super(SUPPORTED_THING_TYPES_UIDS, 30, true);
     }
 
-    @Override
-    @Activate
-    protected void activate(@Nullable Map<@NonNull String, @Nullable Object> configProperties) {
-        try {
-            NetBase.enableServerDiscovery(ServerType.DEVICE_REMOTE);
-        } catch (PhidgetException e) {
-            logger.warn("Unable to enable server discovery for Phidget22 Server"
-                    + ", is libavahi-client (debian) or avahi-devel (rhel) missing?", e);
-        }
-
-        try {
-            NetBase.enableServerDiscovery(ServerType.WWWREMOTE);
-        } catch (PhidgetException e) {
-            logger.warn("Unable to enable server discovery for Phidget22 Web server"
-                    + ", is libavahi-client (debian) or avahi-devel (rhel) missing?", e);
-        }
-        try {
-            NetBase.enableServerDiscovery(ServerType.SBC);
-        } catch (PhidgetException e) {
-            logger.warn("Unable to enable server discovery for Phidget SBC"
-                    + ", is libavahi-client (debian) or avahi-devel (rhel) missing?", e);
-        }
+    @Reference
+    protected void setNetworkService(PhidgetsNetworkService networkService) {
+        // discovery only depends on the library being set up by the network service
+    }
 
-        try {
-            String logfile = (String) configProperties.get(BINDING_CONFIG_LOG_FILE);
-            LogBase.enable(LogLevel.WARNING, logfile);
-        } catch (PhidgetException e) {
-            logger.warn("Could not enable phidgets logging");
-        }
-        super.activate(configProperties);
+    protected void unsetNetworkService(PhidgetsNetworkService networkService) {
     }
 
     @Override
     @Deactivate
     protected void deactivate() {
         super.deactivate();
+        closeManager();
+    }
+
+    @Override
+    protected void startBackgroundDiscovery() {
+        logger.debug("Starting background discovery");
+        synchronized (this) {
+            background = true;
+        }
+        openManager();
+    }
+
+    @Override
+    protected void stopBackgroundDiscovery() {
+        logger.debug("Stopping background discovery");
+        synchronized (this) {
+            background = false;
+        }
+        closeManager();
     }
 
     @Override
     protected void startScan() {
+        synchronized (this) {
+            // devices seen by the running manager will not attach again, publish them anew
+            for (DiscoveryResult result : discovered.values()) {
+                thingDiscovered(result);
+            }
+        }
+        openManager();
+    }
+
+    @Override
+    protected void stopScan() {
+        super.stopScan();
+        synchronized (this) {
+            if (background) {
+                return;
+            }
+        }
+        closeManager();
+    }
+
+    /**
+     * Opens the manager unless it is already open. The manager reports every channel already attached
+     * when it opens, and every channel attaching or detaching afterwards, so devices are discovered and
+     * removed as they come and go without rescanning. The manager is opened and closed outside the lock,
+     * as it delivers its attach and detach events while opening and closing, and the listeners take the
+     * lock; events of a manager that has since been closed are ignored.
+     */
+    private void openManager() {
+        Manager manager;
+        synchronized (this) {
+            if (this.manager != null) {
+                return;
+            }
+            try {
+                manager = new Manager();
+            } catch (PhidgetException e) {
+                logger.error("Unable to create phidgets manager", e);
+                return;
+            }
+            Manager source = manager;
+            manager.addAttachListener(event -> onChannelAttached(source, event.getChannel()));
+            manager.addDetachListener(event -> onChannelDetached(source, event.getChannel()));
+            this.manager = manager;
+        }
         try {
-            final Set<Integer> visited = new HashSet<>();
-            manager = new Manager();
-            manager.addAttachListener(new ManagerAttachListener() {
-                @Override
-                public void onAttach(ManagerAttachEvent event) {
-                    try {
-                        Phidget phidget = event.getChannel();
-                        int serial = phidget.getDeviceSerialNumber();
-                        if (!visited.contains(serial)) {
-                            visited.add(serial);
-
-                            ThingTypeUID type;
-                            switch (phidget.getDeviceID()) {
-                                case PN_DICTIONARY:
-                                    return;
-                                case PN_1010_1013_1018_1019:
-                                    type = PhidgetsBindingConstants.THING_PHIDGET_1010_1013_1018_1019;
-                                    break;
-                                case PN_1011:
-                                    type = PhidgetsBindingConstants.THING_PHIDGET_1011;
-                                    break;
-                                case PN_1012:
-                                    type = PhidgetsBindingConstants.THING_PHIDGET_1012;
-                                    break;
-                                case PN_1014:
-                                    type = PhidgetsBindingConstants.THING_PHIDGET_1014;
-                                    break;
-                                case PN_1017:
-                                    type = PhidgetsBindingConstants.THING_PHIDGET_1017;
-                                    break;
-                                case PN_1046:
-                                    type = PhidgetsBindingConstants.THING_PHIDGET_1046;
-                                    break;
-                                case PN_HUB0000:
-                                    type = PhidgetsBindingConstants.THING_PHIDGET_HUB0000;
-                                    break;
-                                default:
-                                    type = PhidgetsBindingConstants.THING_PHIDGET;
-                            }
-                            String label = String.format("%s (serial: %d)", phidget.getDeviceName(), serial);
-                            thingDiscovered(
-                                    DiscoveryResultBuilder.create(new ThingUID(type, String.format("%d", serial)))
-                                            .withLabel(label).withProperty(THING_CONFIG_SERIAL_NUMBER, serial).build());
-                        }
-                    } catch (PhidgetException e) {
-                        logger.error("Error while handling discovered phidget", e);
-                    }
-                }
-            });
             manager.open();
         } catch (PhidgetException e) {
-            stopScan();
-            throw new RuntimeException(e);
+            logger.error("Unable to open phidgets manager", e);
+            synchronized (this) {
+                if (this.manager == manager) {
+                    this.manager = null;
+                }
+            }
+            return;
+        }
+        synchronized (this) {
+            if (this.manager == manager) {
+                return;
+            }
+        }
+        // closed while opening, the close may have come before the open
+        try {
+            manager.close();
+        } catch (PhidgetException e) {
+            logger.debug("Unable to close phidgets manager", e);
         }
     }
 
-    @Override
-    protected synchronized void stopScan() {
-        super.stopScan();
+    private void closeManager() {
+        Manager manager;
+        synchronized (this) {
+            manager = this.manager;
+            this.manager = null;
+            attachedChannels.clear();
+            discovered.clear();
+        }
         if (manager != null) {
             try {
                 manager.close();
             } catch (PhidgetException e) {
-            } finally {
-                manager = null;
+                logger.debug("Unable to close phidgets manager", e);
+            }
+        }
+    }
+
+    private void onChannelAttached(Manager source, Phidget phidget) {
+        try {
+            if (phidget.getDeviceID() == DeviceID.PN_DICTIONARY) {
+                return;
+            }
+            int serial = phidget.getDeviceSerialNumber();
+            ThingTypeUID type = getThingType(phidget.getDeviceID());
+            String label = String.format("%s (serial: %d)", phidget.getDeviceName(), serial);
+            DiscoveryResult result = DiscoveryResultBuilder.create(new ThingUID(type, String.format("%d", serial)))
+                    .withLabel(label).withProperty(THING_CONFIG_SERIAL_NUMBER, serial).build();
+            synchronized (this) {
+                if (manager != source) {
+                    return;
+                }
+                // a device attaches one channel at a time, only the first one announces it
+                if (attachedChannels.merge(serial, 1, Integer::sum) > 1) {
+                    return;
+                }
+                discovered.put(serial, result);
+            }
+            logger.debug("Discovered {}", label);
+            thingDiscovered(result);
+        } catch (PhidgetException e) {
+            logger.error("Error while handling discovered phidget", e);
+        }
+    }
+
+    private void onChannelDetached(Manager source, Phidget phidget) {
+        try {
+            if (phidget.getDeviceID() == DeviceID.PN_DICTIONARY) {
+                return;
+            }
+            int serial = phidget.getDeviceSerialNumber();
+            DiscoveryResult result;
+            synchronized (this) {
+                if (manager != source) {
+                    return;
+                }
+                Integer remaining = attachedChannels.computeIfPresent(serial,
+                        (key, count) -> count > 1 ? count - 1 : null);
+                if (remaining != null) {
+                    return;
+                }
+                result = discovered.remove(serial);
+            }
+            if (result != null) {
+                logger.debug("Removed {}", result.getLabel());
+                thingRemoved(result.getThingUID());
             }
+        } catch (PhidgetException e) {
+            logger.error("Error while handling removed phidget", e);
+        }
+    }
+
+    private static ThingTypeUID getThingType(DeviceID deviceID) {
+        switch (deviceID) {
+            case PN_1010_1013_1018_1019:
+                return PhidgetsBindingConstants.THING_PHIDGET_1010_1013_1018_1019;
+            case PN_1011:
+                return PhidgetsBindingConstants.THING_PHIDGET_1011;
+            case PN_1012:
+                return PhidgetsBindingConstants.THING_PHIDGET_1012;
+            case PN_1014:
+                return PhidgetsBindingConstants.THING_PHIDGET_1014;
+            case PN_1017:
+                return PhidgetsBindingConstants.THING_PHIDGET_1017;
+            case PN_1046:
+                return PhidgetsBindingConstants.THING_PHIDGET_1046;
+            case PN_DAQ1000:
+                return PhidgetsBindingConstants.THING_PHIDGET_DAQ1000;
+            case PN_DAQ1200:
+                return PhidgetsBindingConstants.THING_PHIDGET_DAQ1200;
+            case PN_DAQ1300:
+                return PhidgetsBindingConstants.THING_PHIDGET_DAQ1300;
+            case PN_DAQ1301:
+                return PhidgetsBindingConstants.THING_PHIDGET_DAQ1301;
+            case PN_DAQ1500:
+                return PhidgetsBindingConstants.THING_PHIDGET_DAQ1500;
+            case PN_HUB0000:
+                return PhidgetsBindingConstants.THING_PHIDGET_HUB0000;
+            default:
+                return PhidgetsBindingConstants.THING_PHIDGET;
         }
     }
 }
@@ -14,17 +14,32 @@ package org.openhab.binding.phidgets.internal;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.NamedThreadFactory;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.storage.Storage;
+import org.eclipse.smarthome.core.storage.StorageService;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandlerFactory;
 import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.thing.binding.ThingHandlerFactory;
 import org.openhab.binding.phidgets.handler.PhidgetsHandler;
+import org.openhab.binding.phidgets.internal.EventDispatcher.OverflowPolicy;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static org.openhab.binding.phidgets.PhidgetsBindingConstants.SUPPORTED_THING_TYPES_UIDS;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
 
 /**
  * The {@link PhidgetsHandlerFactory} is responsible for creating things and thing
@@ -39,10 +54,122 @@ public class PhidgetsHandlerFactory extends BaseThingHandlerFactory {
     private final Logger logger = LoggerFactory.getLogger(PhidgetsHandlerFactory.class);
 
     private PhidgetsChannelFactory phidgetsChannelFactory;
+    private final StartupReport startupReport = new StartupReport(ThreadPoolManager.getScheduledPool(BINDING_ID));
+
+    private @Nullable Path captureDirectory;
+    private @Nullable Path replayDirectory;
+    private double replaySpeed = 1;
+    private long unlinkGracePeriod = DEFAULT_UNLINK_GRACE_PERIOD_MS;
+    private @Nullable Path journalDirectory;
+    private int journalSegmentSize = DEFAULT_JOURNAL_SEGMENT_SIZE_MB * 1024 * 1024;
+    private int journalRetention = DEFAULT_JOURNAL_RETENTION;
+    private @Nullable Storage<String> counterStorage;
+    private @Nullable ExecutorService dispatcherPool;
+    private int dispatcherQueueSize = DEFAULT_DISPATCHER_QUEUE_SIZE;
+    private OverflowPolicy dispatcherOverflow = OverflowPolicy.LATEST;
+    private @Nullable PulseTimer pulseTimer;
 
     public PhidgetsHandlerFactory() {
+        this(new PhidgetsChannelFactory());
+    }
+
+    /**
+     * Creates a factory whose handlers get their phidgets from the given channel factory.
+     */
+    protected PhidgetsHandlerFactory(PhidgetsChannelFactory phidgetsChannelFactory) {
         super();
-        this.phidgetsChannelFactory = new PhidgetsChannelFactory();
+        this.phidgetsChannelFactory = phidgetsChannelFactory;
+    }
+
+    @Override
+    @Activate
+    protected void activate(ComponentContext componentContext) {
+        super.activate(componentContext);
+        Object captureDirectory = componentContext.getProperties().get(BINDING_CONFIG_CAPTURE_DIRECTORY);
+        if (captureDirectory != null && !captureDirectory.toString().trim().isEmpty()) {
+            this.captureDirectory = Paths.get(captureDirectory.toString().trim());
+        }
+        Object replayDirectory = componentContext.getProperties().get(BINDING_CONFIG_REPLAY_DIRECTORY);
+        if (replayDirectory != null && !replayDirectory.toString().trim().isEmpty()) {
+            this.replayDirectory = Paths.get(replayDirectory.toString().trim());
+        }
+        Object replaySpeed = componentContext.getProperties().get(BINDING_CONFIG_REPLAY_SPEED);
+        if (replaySpeed != null) {
+            try {
+                this.replaySpeed = Double.parseDouble(replaySpeed.toString());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid replay speed {}, replaying at recorded speed", replaySpeed);
+            }
+        }
+        Object journalDirectory = componentContext.getProperties().get(BINDING_CONFIG_JOURNAL_DIRECTORY);
+        if (journalDirectory != null && !journalDirectory.toString().trim().isEmpty()) {
+            this.journalDirectory = Paths.get(journalDirectory.toString().trim());
+        }
+        Object journalSegmentSize = componentContext.getProperties().get(BINDING_CONFIG_JOURNAL_SEGMENT_SIZE);
+        if (journalSegmentSize instanceof Number) {
+            // segments are mapped as a whole, which limits them to below 2 GB
+            this.journalSegmentSize = Math.min(1024, ((Number) journalSegmentSize).intValue()) * 1024 * 1024;
+        }
+        Object journalRetention = componentContext.getProperties().get(BINDING_CONFIG_JOURNAL_RETENTION);
+        if (journalRetention instanceof Number) {
+            this.journalRetention = ((Number) journalRetention).intValue();
+        }
+        Object dispatcherThreads = componentContext.getProperties().get(BINDING_CONFIG_DISPATCHER_THREADS);
+        int threads = dispatcherThreads instanceof Number ? ((Number) dispatcherThreads).intValue()
+                : DEFAULT_DISPATCHER_THREADS;
+        if (threads > 0) {
+            dispatcherPool = Executors.newFixedThreadPool(threads, new NamedThreadFactory(BINDING_ID + "-dispatch"));
+        }
+        Object dispatcherQueueSize = componentContext.getProperties().get(BINDING_CONFIG_DISPATCHER_QUEUE_SIZE);
+        if (dispatcherQueueSize instanceof Number) {
+            this.dispatcherQueueSize = ((Number) dispatcherQueueSize).intValue();
+        }
+        this.dispatcherOverflow = OverflowPolicy
+                .fromConfig(componentContext.getProperties().get(BINDING_CONFIG_DISPATCHER_OVERFLOW));
+        this.pulseTimer = new PulseTimer(BINDING_ID + "-pulse");
+        Object unlinkGracePeriod = componentContext.getProperties().get(BINDING_CONFIG_UNLINK_GRACE_PERIOD);
+        if (unlinkGracePeriod != null) {
+            try {
+                this.unlinkGracePeriod = (long) (Double.parseDouble(unlinkGracePeriod.toString()) * 1000);
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid unlink grace period {}, using {} s", unlinkGracePeriod,
+                        DEFAULT_UNLINK_GRACE_PERIOD_MS / 1000);
+            }
+        }
+    }
+
+    @Override
+    @Deactivate
+    protected void deactivate(ComponentContext componentContext) {
+        startupReport.cancel();
+        ExecutorService dispatcherPool = this.dispatcherPool;
+        if (dispatcherPool != null) {
+            dispatcherPool.shutdownNow();
+            this.dispatcherPool = null;
+        }
+        PulseTimer pulseTimer = this.pulseTimer;
+        if (pulseTimer != null) {
+            pulseTimer.shutdown();
+            this.pulseTimer = null;
+        }
+        super.deactivate(componentContext);
+    }
+
+    @Reference
+    protected void setNetworkService(PhidgetsNetworkService networkService) {
+        // handlers only depend on the library being set up by the network service
+    }
+
+    protected void unsetNetworkService(PhidgetsNetworkService networkService) {
+    }
+
+    @Reference
+    protected void setStorageService(StorageService storageService) {
+        this.counterStorage = storageService.getStorage(COUNTER_STORAGE_NAME, getClass().getClassLoader());
+    }
+
+    protected void unsetStorageService(StorageService storageService) {
+        this.counterStorage = null;
     }
 
     @Override
@@ -52,6 +179,34 @@ public class PhidgetsHandlerFactory extends BaseThingHandlerFactory {
 
     @Override
     protected @Nullable ThingHandler createHandler(Thing thing) {
-        return new PhidgetsHandler(thing, phidgetsChannelFactory);
+        String fileName = thing.getUID().getId() + CAPTURE_FILE_EXTENSION;
+        Path replayDirectory = this.replayDirectory;
+        Path captureDirectory = this.captureDirectory;
+        PhidgetsHandler handler;
+        if (replayDirectory != null && Files.isRegularFile(replayDirectory.resolve(fileName))) {
+            logger.debug("Thing {} replays {}", thing.getUID(), replayDirectory.resolve(fileName));
+            // the replayed events stand in for the phidgets of the thing, so it gets a channel factory of its own,
+            // sharing the interlocks with the other things
+            EventReplayer replayer = new EventReplayer(replayDirectory.resolve(fileName), replaySpeed);
+            handler = new PhidgetsHandler(thing, new PhidgetsChannelFactory(replayer.getChannels()::getAdapter,
+                    phidgetsChannelFactory.getInterlocks()));
+            handler.setReplayer(replayer);
+        } else {
+            handler = new PhidgetsHandler(thing, phidgetsChannelFactory);
+            if (captureDirectory != null) {
+                handler.setCaptureFile(captureDirectory.resolve(fileName));
+            }
+        }
+        handler.setUnlinkGracePeriod(unlinkGracePeriod);
+        handler.setStartupReport(startupReport);
+        handler.setCounterStorage(counterStorage);
+        handler.setDispatcher(dispatcherPool, dispatcherQueueSize, dispatcherOverflow);
+        handler.setPulseTimer(pulseTimer);
+        Path journalDirectory = this.journalDirectory;
+        if (journalDirectory != null) {
+            handler.setJournal(journalDirectory.resolve(thing.getUID().getId()), journalSegmentSize,
+                    journalRetention);
+        }
+        return handler;
     }
 }
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import com.phidget22.*;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link PhidgetsNetworkService} sets up the Phidget22 library once for the whole binding: logging,
+ * mDNS discovery of network servers and the statically configured servers. The library shares the
+ * connection to a server between all channels opened through it, so the handlers and the discovery
+ * service only depend on this service having been activated.
+ *
+ * Static servers are configured as a comma separated list of <code>[password@]host[:port]</code>. A server
+ * that cannot be registered is retried with an exponential backoff. Connecting to registered servers and
+ * reconnecting to them is left to the library.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@Component(service = PhidgetsNetworkService.class, immediate = true, configurationPid = "binding.phidgets")
+@NonNullByDefault
+public class PhidgetsNetworkService {
+    private final Logger logger = LoggerFactory.getLogger(PhidgetsNetworkService.class);
+
+    static final long RETRY_MIN_MS = 1000;
+    static final long RETRY_MAX_MS = 300000;
+
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(BINDING_ID);
+
+    private final Map<String, PhidgetServerState> servers = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> retryJobs = new ConcurrentHashMap<>();
+
+    private @Nullable Net net;
+    private volatile boolean active;
+
+    @Activate
+    protected void activate(ComponentContext componentContext) {
+        active = true;
+        Object logfile = componentContext.getProperties().get(BINDING_CONFIG_LOG_FILE);
+        try {
+            LogBase.enable(LogLevel.WARNING, logfile == null ? null : logfile.toString());
+        } catch (PhidgetException e) {
+            logger.warn("Could not enable phidgets logging");
+        }
+
+        try {
+            Net net = new Net();
+            net.addServerAddedListener(event -> onServerAdded(event.getServer()));
+            net.addServerRemovedListener(event -> onServerRemoved(event.getServer()));
+            this.net = net;
+        } catch (PhidgetException e) {
+            logger.warn("Unable to track phidget network servers", e);
+        }
+        enableServerDiscovery(ServerType.DEVICE_REMOTE, "Phidget22 Server");
+        enableServerDiscovery(ServerType.WWWREMOTE, "Phidget22 Web server");
+        enableServerDiscovery(ServerType.SBC, "Phidget SBC");
+
+        Object configured = componentContext.getProperties().get(BINDING_CONFIG_SERVERS);
+        if (configured != null) {
+            for (String server : configured.toString().split(",")) {
+                if (!server.trim().isEmpty()) {
+                    addServer(server.trim());
+                }
+            }
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        active = false;
+        for (ScheduledFuture<?> job : retryJobs.values()) {
+            job.cancel(false);
+        }
+        retryJobs.clear();
+        for (PhidgetServerState server : servers.values()) {
+            if (server.isConfigured() && server.getStatus() == PhidgetServerState.Status.REGISTERED) {
+                try {
+                    NetBase.removeServer(server.getName());
+                } catch (PhidgetException e) {
+                    logger.debug("Unable to remove server {}", server.getName(), e);
+                }
+            }
+        }
+        servers.clear();
+        net = null;
+    }
+
+    /**
+     * Returns the state of all known network servers.
+     */
+    public Collection<PhidgetServerState> getServers() {
+        return new ArrayList<>(servers.values());
+    }
+
+    private void enableServerDiscovery(ServerType type, String description) {
+        try {
+            NetBase.enableServerDiscovery(type);
+        } catch (PhidgetException e) {
+            logger.warn("Unable to enable server discovery for " + description
+                    + ", is libavahi-client (debian) or avahi-devel (rhel) missing?", e);
+        }
+    }
+
+    private void addServer(String server) {
+        String password = "";
+        String address = server;
+        int at = address.lastIndexOf('@');
+        if (at >= 0) {
+            password = address.substring(0, at);
+            address = address.substring(at + 1);
+        }
+        String host = address;
+        int port = DEFAULT_SERVER_PORT;
+        int colon = address.lastIndexOf(':');
+        if (colon >= 0) {
+            host = address.substring(0, colon);
+            try {
+                port = Integer.parseInt(address.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid port in phidget server {}, using {}", address, DEFAULT_SERVER_PORT);
+            }
+        }
+        String name = host + ":" + port;
+        PhidgetServerState state = new PhidgetServerState(name, host, port, true);
+        servers.put(name, state);
+        registerServer(state, password);
+    }
+
+    private void registerServer(PhidgetServerState state, String password) {
+        retryJobs.remove(state.getName());
+        if (!active) {
+            return;
+        }
+        try {
+            NetBase.addServer(state.getName(), state.getHost(), state.getPort(), password, 0);
+            state.registered();
+            logger.debug("Registered phidget server {}", state.getName());
+        } catch (PhidgetException e) {
+            long backoff = Math.min(RETRY_MAX_MS, RETRY_MIN_MS << Math.min(state.getFailures(), 16));
+            state.failed(e.getMessage(), backoff);
+            logger.warn("Unable to add phidget server {}, retrying in {} s: {}", state.getName(), backoff / 1000,
+                    e.getMessage());
+            retryJobs.put(state.getName(),
+                    scheduler.schedule(() -> registerServer(state, password), backoff, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void onServerAdded(PhidgetServer server) {
+        if (!active) {
+            return;
+        }
+        logger.debug("Phidget server {} ({}:{}) added", server.name, server.host, server.port);
+        servers.computeIfAbsent(server.name, name -> new PhidgetServerState(name, server.host, server.port, false))
+                .registered();
+    }
+
+    private void onServerRemoved(PhidgetServer server) {
+        logger.debug("Phidget server {} removed", server.name);
+        PhidgetServerState state = servers.get(server.name);
+        if (state != null) {
+            state.removed();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link PulseCounter} counts the edges of a digital input in place of publishing every state change.
+ * Counting is lock free; the count is read by the jobs publishing it and persisting it.
+ *
+ * The first state after an attach only tells the level of the input, so it is not counted as an edge.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class PulseCounter {
+    public enum Edge {
+        RISING,
+        FALLING,
+        BOTH;
+
+        public static Edge fromConfig(@Nullable Object value) {
+            if (value != null) {
+                for (Edge edge : values()) {
+                    if (edge.name().equalsIgnoreCase(value.toString())) {
+                        return edge;
+                    }
+                }
+            }
+            return RISING;
+        }
+    }
+
+    private static final int UNKNOWN = -1;
+
+    private final Edge edge;
+    private final AtomicLong count;
+    /** Last state seen, 1 for on, 0 for off. Only written by the phidget callback thread */
+    private volatile int lastState = UNKNOWN;
+
+    public PulseCounter(Edge edge, long count) {
+        this.edge = edge;
+        this.count = new AtomicLong(count);
+    }
+
+    /**
+     * Counts the state change if it is an edge of the counted kind. Called from the phidget callback thread.
+     */
+    public void onState(boolean state) {
+        int lastState = this.lastState;
+        int newState = state ? 1 : 0;
+        if (lastState == newState) {
+            return;
+        }
+        this.lastState = newState;
+        if (lastState != UNKNOWN && (edge == Edge.BOTH || (edge == Edge.RISING) == state)) {
+            count.incrementAndGet();
+        }
+    }
+
+    /**
+     * Forgets the last state, as edges may have been missed while the input was detached.
+     */
+    public void reset() {
+        lastState = UNKNOWN;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+}
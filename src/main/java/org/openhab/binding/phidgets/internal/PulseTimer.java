@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@link PulseTimer} ends the output pulses of the binding. A scheduled thread pool wakes up a
+ * millisecond or more late under load, which is a large part of a short pulse, so the timer has a thread of
+ * its own which sleeps until shortly before the deadline and spins for the rest.
+ *
+ * At most one action is scheduled per key, scheduling another replaces it. Actions run on the timer thread
+ * and should be as short as the write of an output.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class PulseTimer {
+    private static final Logger logger = LoggerFactory.getLogger(PulseTimer.class);
+
+    /** How long before the deadline the timer stops sleeping and spins */
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private static final class Task {
+        final Object key;
+        final long deadline;
+        final Runnable action;
+        volatile boolean cancelled;
+
+        Task(Object key, long deadline, Runnable action) {
+            this.key = key;
+            this.deadline = deadline;
+            this.action = action;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(
+            Comparator.comparingLong((Task task) -> task.deadline));
+    private final Map<Object, Task> tasks = new HashMap<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public PulseTimer(String name) {
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Runs the action at the given {@link System#nanoTime()}, replacing the action scheduled for the key.
+     */
+    public void schedule(Object key, long deadline, Runnable action) {
+        Task task = new Task(key, deadline, action);
+        lock.lock();
+        try {
+            Task replaced = tasks.put(key, task);
+            if (replaced != null) {
+                replaced.cancelled = true;
+                queue.remove(replaced);
+            }
+            queue.add(task);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if an action was scheduled for the key and will not run
+     */
+    public boolean cancel(Object key) {
+        lock.lock();
+        try {
+            Task task = tasks.remove(key);
+            if (task == null) {
+                return false;
+            }
+            task.cancelled = true;
+            queue.remove(task);
+            changed.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isScheduled(Object key) {
+        lock.lock();
+        try {
+            return tasks.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the timer thread, the scheduled actions do not run.
+     */
+    public void shutdown() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            Task task = next();
+            if (task == null) {
+                continue;
+            }
+            while (System.nanoTime() - task.deadline < 0 && !task.cancelled) {
+                Thread.yield();
+            }
+            if (!take(task)) {
+                continue;
+            }
+            try {
+                task.action.run();
+            } catch (RuntimeException e) {
+                logger.warn("Pulse action for {} failed", task.key, e);
+            }
+        }
+    }
+
+    /**
+     * Sleeps until the earliest task is due within the spin time.
+     *
+     * @return the task to spin for, or null to look again
+     */
+    private @Nullable Task next() {
+        lock.lock();
+        try {
+            Task task = queue.peek();
+            if (task == null) {
+                changed.await();
+                return null;
+            }
+            long wait = task.deadline - System.nanoTime() - SPIN_NANOS;
+            if (wait > 0) {
+                changed.awaitNanos(wait);
+                return null;
+            }
+            return task;
+        } catch (InterruptedException e) {
+            running = false;
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean take(Task task) {
+        lock.lock();
+        try {
+            if (task.cancelled || !queue.remove(task)) {
+                return false;
+            }
+            tasks.remove(task.key, task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
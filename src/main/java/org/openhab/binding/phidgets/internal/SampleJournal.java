@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link SampleJournal} keeps the raw samples of one channel on disk for post-mortems. The phidget callback
+ * thread only appends to a preallocated in-memory ring; a scheduled {@link #drain()} moves the samples into
+ * memory-mapped segment files, so neither side allocates per sample and no disk I/O happens on the callback
+ * thread. Samples arriving while the ring is full are counted and dropped.
+ *
+ * A segment file starts with a header of magic, version and the epoch millis it was created at, followed by
+ * fixed-width records of epoch nanos and value. Segments are preallocated; a record with a zero timestamp
+ * marks the end of a segment that was not filled. Once a segment is full the next one is started, and the
+ * oldest segments are deleted beyond the retention count.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public class SampleJournal implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SampleJournal.class);
+
+    static final int MAGIC = 0x50484a4e;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 16;
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_EXTENSION = ".phj";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int retention;
+
+    private final long[] times;
+    private final double[] values;
+    private final int mask;
+    /** Next ring slot to write, only advanced by the callback thread */
+    private final AtomicLong head = new AtomicLong();
+    /** Next ring slot to drain, only advanced by the draining thread */
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private final long baseEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    private final long baseNanoTime = System.nanoTime();
+
+    private @Nullable MappedByteBuffer segment;
+    private long segmentMillis;
+    private boolean closed;
+
+    /**
+     * @param directory the directory of the segment files of the channel, created if missing
+     * @param segmentSize the size of a segment file in bytes
+     * @param retention the number of segment files kept
+     * @param capacity the number of samples the ring holds between drains, rounded up to a power of two
+     */
+    public SampleJournal(Path directory, int segmentSize, int retention, int capacity) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.max(HEADER_SIZE + RECORD_SIZE, segmentSize - (segmentSize - HEADER_SIZE) % RECORD_SIZE);
+        this.retention = Math.max(1, retention);
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.times = new long[size];
+        this.values = new double[size];
+        this.mask = size - 1;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Appends a sample to the ring. Called from the phidget callback thread only.
+     *
+     * @param nanoTime the {@link System#nanoTime()} the sample was taken at
+     */
+    public void append(long nanoTime, double value) {
+        long head = this.head.get();
+        if (head - tail.get() > mask) {
+            dropped.increment();
+            return;
+        }
+        int slot = (int) head & mask;
+        times[slot] = nanoTime;
+        values[slot] = value;
+        this.head.lazySet(head + 1);
+    }
+
+    /**
+     * Writes the samples in the ring to the segment files. Called from one scheduler thread at a time.
+     */
+    public synchronized void drain() {
+        long tail = this.tail.get();
+        long head = this.head.get();
+        long start = tail;
+        try {
+            while (tail < head && !closed) {
+                MappedByteBuffer segment = this.segment;
+                if (segment == null || segment.remaining() < RECORD_SIZE) {
+                    segment = nextSegment();
+                }
+                int slot = (int) tail & mask;
+                segment.putLong(baseEpochNanos + times[slot] - baseNanoTime);
+                segment.putDouble(values[slot]);
+                tail++;
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write sample journal {}, dropping samples", directory, e);
+            dropped.add(head - tail);
+            start += head - tail;
+            tail = head;
+        }
+        written.add(tail - start);
+        this.tail.lazySet(tail);
+    }
+
+    private MappedByteBuffer nextSegment() throws IOException {
+        MappedByteBuffer previous = this.segment;
+        if (previous != null) {
+            previous.force();
+        }
+        // segment names sort by creation, keep them unique when segments fill up within a millisecond
+        long now = Math.max(System.currentTimeMillis(), segmentMillis + 1);
+        segmentMillis = now;
+        Path file = directory.resolve(String.format("%s%013d%s", SEGMENT_PREFIX, now, SEGMENT_EXTENSION));
+        MappedByteBuffer segment;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment.putInt(MAGIC);
+        segment.putInt(VERSION);
+        segment.putLong(now);
+        this.segment = segment;
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i < segments.size() - retention; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+        return segment;
+    }
+
+    /**
+     * @return the number of samples dropped because the ring was full or the journal could not be written
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Drains the remaining samples and closes the journal.
+     */
+    @Override
+    public synchronized void close() {
+        drain();
+        closed = true;
+        MappedByteBuffer segment = this.segment;
+        if (segment != null) {
+            segment.force();
+            this.segment = null;
+        }
+    }
+
+    /**
+     * Writes the samples of the given time range as CSV lines of ISO-8601 timestamp and value.
+     *
+     * @return the number of samples written
+     */
+    public long export(long fromEpochNanos, long toEpochNanos, Writer out) throws IOException {
+        drain();
+        return export(directory, fromEpochNanos, toEpochNanos, out);
+    }
+
+    /**
+     * Writes the samples of the given time range found in the segment files of a directory as CSV lines of
+     * ISO-8601 timestamp and value.
+     *
+     * @return the number of samples written
+     */
+    public static long export(Path directory, long fromEpochNanos, long toEpochNanos, Writer out)
+            throws IOException {
+        long count = 0;
+        out.write("timestamp,value\n");
+        for (Path file : listSegments(directory)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.debug("Skipping {}, not a sample journal segment", file);
+                continue;
+            }
+            buffer.getLong();
+            while (buffer.remaining() >= RECORD_SIZE) {
+                long time = buffer.getLong();
+                double value = buffer.getDouble();
+                if (time == 0) {
+                    break;
+                }
+                if (time >= fromEpochNanos && time < toEpochNanos) {
+                    Instant instant = Instant.ofEpochSecond(0, time);
+                    out.write(instant.toString());
+                    out.write(',');
+                    out.write(Double.toString(value));
+                    out.write('\n');
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the segment files of the directory, oldest first
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION)) {
+            for (Path file : stream) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+}
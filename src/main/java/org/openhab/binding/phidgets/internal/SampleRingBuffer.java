@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link SampleRingBuffer} keeps the most recent (timestamp, value) samples of one channel in fixed
+ * size primitive arrays. It is written by a single producer, the phidget callback thread, and read by
+ * periodic statistics jobs without locking: the reader checks the write sequence after reading and
+ * discards any slot the producer may have overwritten in the meantime.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class SampleRingBuffer {
+
+    /**
+     * Statistics over the samples in a window. Instances are reused between computations.
+     */
+    public static final class Statistics {
+        public long count;
+        public double mean;
+        public double rms;
+        public double min;
+        public double max;
+        public double stddev;
+    }
+
+    private final long[] timestamps;
+    private final double[] values;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of samples kept, rounded up to the next power of two
+     */
+    public SampleRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.timestamps = new long[size];
+        this.values = new double[size];
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Appends a sample. Must only be called from one thread at a time.
+     */
+    public void add(long timestampNanos, double value) {
+        long seq = sequence.get();
+        int idx = (int) (seq & mask);
+        timestamps[idx] = timestampNanos;
+        values[idx] = value;
+        sequence.lazySet(seq + 1);
+    }
+
+    /**
+     * Computes statistics over the samples taken at or after the given timestamp. Only the newest three
+     * quarters of the buffer are read, which leaves the producer room to keep writing during the
+     * computation; if it still overtakes the reader, the computation is retried. The last attempt checks
+     * the write sequence after every sample and stops at the first one the producer may have overwritten,
+     * so the statistics always describe the samples they count, at worst over the newest part of the window.
+     *
+     * @return the given statistics object
+     */
+    public Statistics compute(long sinceNanos, Statistics stats) {
+        long count;
+        double sum;
+        double sumSquares;
+        double min;
+        double max;
+        int attempts = 0;
+        while (true) {
+            boolean checked = ++attempts >= 3;
+            long end = sequence.get();
+            long oldest = Math.max(0, end - (values.length - (values.length >> 2)));
+            count = 0;
+            sum = 0;
+            sumSquares = 0;
+            min = Double.NaN;
+            max = Double.NaN;
+            for (long seq = end - 1; seq >= oldest; seq--) {
+                int idx = (int) (seq & mask);
+                long timestamp = timestamps[idx];
+                double value = values[idx];
+                if (checked && seq <= sequence.get() - values.length) {
+                    break;
+                }
+                if (timestamp - sinceNanos < 0) {
+                    oldest = seq;
+                    break;
+                }
+                count++;
+                sum += value;
+                sumSquares += value * value;
+                if (count == 1 || value < min) {
+                    min = value;
+                }
+                if (count == 1 || value > max) {
+                    max = value;
+                }
+            }
+            if (checked || oldest > sequence.get() - values.length) {
+                break;
+            }
+        }
+
+        stats.count = count;
+        if (count == 0) {
+            stats.mean = Double.NaN;
+            stats.rms = Double.NaN;
+            stats.stddev = Double.NaN;
+        } else {
+            stats.mean = sum / count;
+            stats.rms = Math.sqrt(sumSquares / count);
+            stats.stddev = Math.sqrt(Math.max(0, sumSquares / count - stats.mean * stats.mean));
+        }
+        stats.min = min;
+        stats.max = max;
+        return stats;
+    }
+}
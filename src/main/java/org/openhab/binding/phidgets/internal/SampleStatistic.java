@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.phidgets.internal.SampleRingBuffer.Statistics;
+
+/**
+ * The {@link SampleStatistic} selects which value of a {@link Statistics} a statistic channel publishes.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public enum SampleStatistic {
+    MEAN,
+    RMS,
+    MIN,
+    MAX,
+    STDDEV,
+    COUNT;
+
+    public double of(Statistics stats) {
+        switch (this) {
+            case RMS:
+                return stats.rms;
+            case MIN:
+                return stats.min;
+            case MAX:
+                return stats.max;
+            case STDDEV:
+                return stats.stddev;
+            case COUNT:
+                return stats.count;
+            default:
+                return stats.mean;
+        }
+    }
+
+    public static SampleStatistic fromConfig(@Nullable Object value) {
+        if (value != null) {
+            for (SampleStatistic statistic : values()) {
+                if (statistic.name().equalsIgnoreCase(value.toString())) {
+                    return statistic;
+                }
+            }
+        }
+        return MEAN;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.Configuration;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link SensorCoalescer} sits between a sensor listener and the state update of its channel. Samples
+ * are aggregated into primitive fields and published at most once per publish interval, and only when the
+ * aggregate has moved past the configured deadband since the last published value. With a publish interval
+ * of zero, every sample that passes the deadband is published right away.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class SensorCoalescer {
+
+    public enum Aggregation {
+        LAST,
+        MEAN,
+        MIN,
+        MAX;
+
+        public static Aggregation fromConfig(@Nullable Object value) {
+            if (value != null) {
+                for (Aggregation aggregation : values()) {
+                    if (aggregation.name().equalsIgnoreCase(value.toString())) {
+                        return aggregation;
+                    }
+                }
+            }
+            return LAST;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Publisher {
+        void publish(double value);
+    }
+
+    private final long publishInterval;
+    private final double deadband;
+    private final double relativeDeadband;
+    private final Aggregation aggregation;
+    private final Publisher publisher;
+
+    private int count;
+    private double last;
+    private double sum;
+    private double min;
+    private double max;
+
+    private boolean published;
+    private double lastPublished;
+    private long dropped;
+
+    public SensorCoalescer(long publishInterval, double deadband, double relativeDeadband, Aggregation aggregation,
+            Publisher publisher) {
+        this.publishInterval = publishInterval;
+        this.deadband = deadband;
+        this.relativeDeadband = relativeDeadband;
+        this.aggregation = aggregation;
+        this.publisher = publisher;
+    }
+
+    public static SensorCoalescer fromConfiguration(Configuration configuration, Publisher publisher) {
+        Number publishInterval = (Number) configuration.get(CHANNEL_CONFIG_PUBLISH_INTERVAL);
+        Number deadband = (Number) configuration.get(CHANNEL_CONFIG_DEADBAND);
+        Number relativeDeadband = (Number) configuration.get(CHANNEL_CONFIG_DEADBAND_RELATIVE);
+        return new SensorCoalescer(publishInterval == null ? 0 : publishInterval.longValue(),
+                deadband == null ? 0 : deadband.doubleValue(),
+                relativeDeadband == null ? 0 : relativeDeadband.doubleValue() / 100d,
+                Aggregation.fromConfig(configuration.get(CHANNEL_CONFIG_AGGREGATION)), publisher);
+    }
+
+    /**
+     * @return the publish interval in milliseconds, zero if every sample is published directly
+     */
+    public long getPublishInterval() {
+        return publishInterval;
+    }
+
+    /**
+     * @return the number of values held back by the deadband
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Adds a sample. Called from the phidget callback thread.
+     */
+    public void offer(double value) {
+        if (publishInterval <= 0) {
+            if (passesDeadband(value)) {
+                publisher.publish(value);
+            }
+            return;
+        }
+        synchronized (this) {
+            if (count == 0) {
+                sum = 0;
+                min = value;
+                max = value;
+            } else {
+                if (value < min) {
+                    min = value;
+                }
+                if (value > max) {
+                    max = value;
+                }
+            }
+            sum += value;
+            last = value;
+            count++;
+        }
+    }
+
+    /**
+     * Publishes the aggregate of the samples received since the previous flush, if any. Called once per
+     * publish interval.
+     */
+    public void flush() {
+        double value;
+        synchronized (this) {
+            if (count == 0) {
+                return;
+            }
+            switch (aggregation) {
+                case MEAN:
+                    value = sum / count;
+                    break;
+                case MIN:
+                    value = min;
+                    break;
+                case MAX:
+                    value = max;
+                    break;
+                default:
+                    value = last;
+            }
+            count = 0;
+        }
+        if (passesDeadband(value)) {
+            publisher.publish(value);
+        }
+    }
+
+    private synchronized boolean passesDeadband(double value) {
+        if (published) {
+            double delta = Math.abs(value - lastPublished);
+            if (delta < deadband || delta < relativeDeadband * Math.abs(lastPublished)) {
+                dropped++;
+                return false;
+            }
+        }
+        published = true;
+        lastPublished = value;
+        return true;
+    }
+}
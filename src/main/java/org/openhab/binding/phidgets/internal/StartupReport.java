@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link StartupReport} collects the {@link StartupTimes} of the things set up at about the same time,
+ * typically on startup, and logs a summary with the slowest things once no thing has been set up for a
+ * while.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public class StartupReport {
+    private final Logger logger = LoggerFactory.getLogger(StartupReport.class);
+
+    static final long REPORT_DELAY_MS = 5000;
+    static final int SLOWEST_THINGS = 5;
+
+    private final ScheduledExecutorService scheduler;
+    private final Map<ThingUID, StartupTimes> things = new ConcurrentHashMap<>();
+    private @Nullable ScheduledFuture<?> reportJob;
+
+    public StartupReport(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Adds a thing that has been set up to the next summary. The summary is delayed until no thing has been
+     * added for a while, which also gives the added things time to attach.
+     */
+    public synchronized void record(ThingUID thingUID, StartupTimes times) {
+        things.put(thingUID, times);
+        ScheduledFuture<?> reportJob = this.reportJob;
+        if (reportJob != null) {
+            reportJob.cancel(false);
+        }
+        this.reportJob = scheduler.schedule(this::report, REPORT_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void cancel() {
+        ScheduledFuture<?> reportJob = this.reportJob;
+        if (reportJob != null) {
+            reportJob.cancel(false);
+            this.reportJob = null;
+        }
+        things.clear();
+    }
+
+    private void report() {
+        List<Map.Entry<ThingUID, StartupTimes>> entries;
+        synchronized (this) {
+            reportJob = null;
+            entries = new ArrayList<>(things.entrySet());
+            things.clear();
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(
+                (Map.Entry<ThingUID, StartupTimes> entry) -> entry.getValue().getTotalNanos()).reversed());
+        long attached = entries.stream().filter(entry -> entry.getValue().getFirstAttachNanos() >= 0).count();
+        logger.info("Set up {} phidget things, {} attached, slowest took {} ms", entries.size(), attached,
+                TimeUnit.NANOSECONDS.toMillis(entries.get(0).getValue().getTotalNanos()));
+        for (Map.Entry<ThingUID, StartupTimes> entry : entries.subList(0, Math.min(SLOWEST_THINGS, entries.size()))) {
+            logger.info("  {}: {}", entry.getKey(), entry.getValue());
+        }
+    }
+}
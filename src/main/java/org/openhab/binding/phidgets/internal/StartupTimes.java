@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link StartupTimes} record how long the phases of setting up a thing took, measured from the start of
+ * its initialization. Configure and open are summed over the channels opened during startup. All phases are
+ * written by the thread setting up the thing, except for the first attach.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class StartupTimes {
+    private final long startNanos = System.nanoTime();
+
+    private volatile long acquireNanos = -1;
+    private volatile long configureNanos;
+    private volatile long openNanos;
+    private volatile long setupNanos = -1;
+    private volatile long firstAttachNanos = -1;
+
+    /**
+     * Marks the phidgets of the thing as acquired.
+     */
+    public void acquired() {
+        acquireNanos = System.nanoTime() - startNanos;
+    }
+
+    public void addConfigure(long nanos) {
+        configureNanos += nanos;
+    }
+
+    public void addOpen(long nanos) {
+        openNanos += nanos;
+    }
+
+    /**
+     * Marks all channels of the thing as set up and opened.
+     */
+    public void setUp() {
+        setupNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Marks the first attach of a channel, later calls are ignored.
+     */
+    public void attached() {
+        if (firstAttachNanos < 0) {
+            firstAttachNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * @return the time until the phidgets were acquired, or -1 if they are not yet
+     */
+    public long getAcquireNanos() {
+        return acquireNanos;
+    }
+
+    public long getConfigureNanos() {
+        return configureNanos;
+    }
+
+    public long getOpenNanos() {
+        return openNanos;
+    }
+
+    /**
+     * @return the time until all channels were set up, or -1 if they are not yet
+     */
+    public long getSetupNanos() {
+        return setupNanos;
+    }
+
+    /**
+     * @return the time until the first channel attached, or -1 if none did yet
+     */
+    public long getFirstAttachNanos() {
+        return firstAttachNanos;
+    }
+
+    /**
+     * @return the time until the thing was set up and a channel attached, as far as it got
+     */
+    public long getTotalNanos() {
+        return Math.max(setupNanos, firstAttachNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("acquire %s, configure %s, open %s, set up %s, first attach %s", millis(acquireNanos),
+                millis(configureNanos), millis(openNanos), millis(setupNanos), millis(firstAttachNanos));
+    }
+
+    private static String millis(long nanos) {
+        return nanos < 0 ? "-" : String.format("%.1f ms", nanos / 1e6);
+    }
+}
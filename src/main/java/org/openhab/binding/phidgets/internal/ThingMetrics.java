@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link ThingMetrics} time the work a handler does for the thing as a whole, next to the
+ * {@link ChannelMetrics} of its channels.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class ThingMetrics {
+    /** Time spent waiting for the phidgets of the thing to be acquired */
+    public final TimingMetric acquisitionWait = new TimingMetric();
+    /** Time from the attach that triggered a restore until all pending output states were written */
+    public final TimingMetric outputRestore = new TimingMetric();
+    /** Time from an output group command until every member was written */
+    public final TimingMetric groupCommand = new TimingMetric();
+    /** Time from an input event until the output of a triggered interlock was written */
+    public final TimingMetric interlockReaction = new TimingMetric();
+    /** Triggered interlocks whose output was detached or could not be written */
+    public final LongAdder interlocksMissed = new LongAdder();
+
+    /** Time state updates waited in the {@link EventDispatcher} queue */
+    public final TimingMetric dispatchDelay = new TimingMetric();
+    /** State updates dropped because the dispatcher queue was full */
+    public final LongAdder dispatchDropped = new LongAdder();
+    /** Queued state updates replaced by a newer state of the same channel */
+    public final LongAdder dispatchReplaced = new LongAdder();
+    public final AtomicInteger dispatchQueueDepth = new AtomicInteger();
+    public final LongAccumulator dispatchQueueDepthMax = new LongAccumulator(Math::max, 0);
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.*;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link CurrentInputAdapter} adapts {@link CurrentInput} channels, which publish the current in ampere.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+final class CurrentInputAdapter extends PhidgetDeviceAdapter {
+    CurrentInputAdapter() {
+        super(CHANNEL_CURRENT_INPUT_ID);
+    }
+
+    @Override
+    public boolean isSensor() {
+        return true;
+    }
+
+    @Override
+    public Phidget create() throws PhidgetException {
+        return new CurrentInput();
+    }
+
+    @Override
+    public void addListeners(Phidget phidget, PhidgetChannelBinding binding, PhidgetChannelListener listener) {
+        ((CurrentInput) phidget)
+                .addCurrentChangeListener((event) -> listener.onSensorChange(binding, event.getCurrent()));
+    }
+
+    @Override
+    public void configure(Phidget phidget, Configuration configuration) throws PhidgetException {
+        CurrentInput in = (CurrentInput) phidget;
+        int dataInterval = getDataInterval(configuration, in.getMinDataInterval(), in.getMaxDataInterval());
+        if (dataInterval > 0) {
+            in.setDataInterval(dataInterval);
+        }
+        Number sensitivity = (Number) configuration.get(CHANNEL_CONFIG_SENSITIVITY);
+        if (sensitivity != null) {
+            in.setCurrentChangeTrigger(sensitivity.doubleValue());
+        }
+
+        PowerSupply powerSupply = PowerSupply.getEnum(getInt(configuration, CHANNEL_CONFIG_POWER_SUPPLY, UNSET));
+        if (powerSupply != null) {
+            in.setPowerSupply(powerSupply);
+        }
+    }
+
+    @Override
+    public State read(Phidget phidget) throws PhidgetException {
+        return new DecimalType(((CurrentInput) phidget).getCurrent());
+    }
+}
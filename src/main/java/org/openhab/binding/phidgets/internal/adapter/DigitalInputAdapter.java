@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.*;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link DigitalInputAdapter} adapts {@link DigitalInput} channels.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+final class DigitalInputAdapter extends PhidgetDeviceAdapter {
+    DigitalInputAdapter() {
+        super(CHANNEL_DIGITAL_INPUT_ID);
+    }
+
+    @Override
+    public HubPortMode getHubPortMode() {
+        return HubPortMode.DIGITAL_INPUT;
+    }
+
+    @Override
+    public Phidget create() throws PhidgetException {
+        return new DigitalInput();
+    }
+
+    @Override
+    public void addListeners(Phidget phidget, PhidgetChannelBinding binding, PhidgetChannelListener listener) {
+        ((DigitalInput) phidget).addStateChangeListener((event) -> listener.onStateChange(binding, event.getState()));
+    }
+
+    @Override
+    public void configure(Phidget phidget, Configuration configuration) throws PhidgetException {
+        DigitalInput in = (DigitalInput) phidget;
+        PowerSupply powerSupply = PowerSupply.getEnum(getInt(configuration, CHANNEL_CONFIG_POWER_SUPPLY, UNSET));
+        if (powerSupply != null) {
+            in.setPowerSupply(powerSupply);
+        }
+
+        InputMode inputMode = InputMode.getEnum(getInt(configuration, CHANNEL_CONFIG_INPUT_MODE, UNSET));
+        if (inputMode != null) {
+            in.setInputMode(inputMode);
+        }
+    }
+
+    @Override
+    public State read(Phidget phidget) throws PhidgetException {
+        return toState(((DigitalInput) phidget).getState());
+    }
+}
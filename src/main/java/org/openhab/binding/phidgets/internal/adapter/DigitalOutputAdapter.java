@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.*;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link DigitalOutputAdapter} adapts {@link DigitalOutput} channels, including relay outputs. On and
+ * off commands sent while the output is detached are written when it attaches, and the output can be pulsed.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+final class DigitalOutputAdapter extends PhidgetDeviceAdapter {
+    DigitalOutputAdapter() {
+        super(CHANNEL_DIGITAL_OUTPUT_ID);
+    }
+
+    @Override
+    public HubPortMode getHubPortMode() {
+        return HubPortMode.DIGITAL_OUTPUT;
+    }
+
+    @Override
+    public boolean isRestorable(Command command) {
+        return command instanceof OnOffType;
+    }
+
+    @Override
+    public boolean isPulsable() {
+        return true;
+    }
+
+    @Override
+    public Phidget create() throws PhidgetException {
+        return new DigitalOutput();
+    }
+
+    @Override
+    public void configure(Phidget phidget, Configuration configuration) throws PhidgetException {
+        DigitalOutput out = (DigitalOutput) phidget;
+        Number dutyCycle = (Number) configuration.get(CHANNEL_CONFIG_DUTY_CYCLE);
+        if (dutyCycle != null) {
+            out.setDutyCycle(dutyCycle.doubleValue());
+        }
+
+        Number ledCurrentLimit = (Number) configuration.get(CHANNEL_CONFIG_LED_CURRENT_LIMIT);
+        if (ledCurrentLimit != null) {
+            out.setLEDCurrentLimit(ledCurrentLimit.doubleValue());
+        }
+
+        LEDForwardVoltage ledForwardVoltage = LEDForwardVoltage
+                .getEnum(getInt(configuration, CHANNEL_CONFIG_LED_FORWARD_VOLTAGE, UNSET));
+        if (ledForwardVoltage != null) {
+            out.setLEDForwardVoltage(ledForwardVoltage);
+        }
+    }
+
+    @Override
+    public State read(Phidget phidget) throws PhidgetException {
+        return toState(((DigitalOutput) phidget).getState());
+    }
+
+    @Override
+    public @Nullable State write(Phidget phidget, Command command) throws PhidgetException {
+        if (command instanceof OnOffType) {
+            ((DigitalOutput) phidget).setState(command == OnOffType.ON);
+            return (OnOffType) command;
+        }
+        return null;
+    }
+}
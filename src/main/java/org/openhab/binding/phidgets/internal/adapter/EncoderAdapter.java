@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.*;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link EncoderAdapter} adapts {@link Encoder} channels, which publish the position of the encoder.
+ * A number command sets the position, e.g. to zero it.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+final class EncoderAdapter extends PhidgetDeviceAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(EncoderAdapter.class);
+
+    EncoderAdapter() {
+        super(CHANNEL_ENCODER_INPUT_ID);
+    }
+
+    @Override
+    public boolean isSensor() {
+        return true;
+    }
+
+    @Override
+    public Phidget create() throws PhidgetException {
+        return new Encoder();
+    }
+
+    @Override
+    public void addListeners(Phidget phidget, PhidgetChannelBinding binding, PhidgetChannelListener listener) {
+        Encoder encoder = (Encoder) phidget;
+        // events carry the change only, the position is kept by the library
+        encoder.addPositionChangeListener((event) -> {
+            try {
+                listener.onSensorChange(binding, encoder.getPosition());
+            } catch (PhidgetException e) {
+                logger.debug("Unable to read the position of {}", binding.getUID().getId(), e);
+            }
+        });
+    }
+
+    @Override
+    public void configure(Phidget phidget, Configuration configuration) throws PhidgetException {
+        Encoder encoder = (Encoder) phidget;
+        int dataInterval = getDataInterval(configuration, encoder.getMinDataInterval(),
+                encoder.getMaxDataInterval());
+        if (dataInterval > 0) {
+            encoder.setDataInterval(dataInterval);
+        }
+        Number sensitivity = (Number) configuration.get(CHANNEL_CONFIG_SENSITIVITY);
+        if (sensitivity != null) {
+            encoder.setPositionChangeTrigger(sensitivity.intValue());
+        }
+    }
+
+    @Override
+    public State read(Phidget phidget) throws PhidgetException {
+        return new DecimalType(((Encoder) phidget).getPosition());
+    }
+
+    @Override
+    public @Nullable State write(Phidget phidget, Command command) throws PhidgetException {
+        if (command instanceof DecimalType) {
+            ((Encoder) phidget).setPosition(((DecimalType) command).longValue());
+            return (DecimalType) command;
+        }
+        return null;
+    }
+}
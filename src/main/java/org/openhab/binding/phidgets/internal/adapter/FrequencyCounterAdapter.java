@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.*;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link FrequencyCounterAdapter} adapts {@link FrequencyCounter} channels, which publish the frequency
+ * measured by the device in hertz.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+final class FrequencyCounterAdapter extends PhidgetDeviceAdapter {
+    FrequencyCounterAdapter() {
+        super(CHANNEL_FREQUENCY_INPUT_ID);
+    }
+
+    @Override
+    public boolean isSensor() {
+        return true;
+    }
+
+    @Override
+    public Phidget create() throws PhidgetException {
+        return new FrequencyCounter();
+    }
+
+    @Override
+    public void addListeners(Phidget phidget, PhidgetChannelBinding binding, PhidgetChannelListener listener) {
+        ((FrequencyCounter) phidget)
+                .addFrequencyChangeListener((event) -> listener.onSensorChange(binding, event.getFrequency()));
+    }
+
+    @Override
+    public void configure(Phidget phidget, Configuration configuration) throws PhidgetException {
+        FrequencyCounter counter = (FrequencyCounter) phidget;
+        int dataInterval = getDataInterval(configuration, counter.getMinDataInterval(),
+                counter.getMaxDataInterval());
+        if (dataInterval > 0) {
+            counter.setDataInterval(dataInterval);
+        }
+
+        PowerSupply powerSupply = PowerSupply.getEnum(getInt(configuration, CHANNEL_CONFIG_POWER_SUPPLY, UNSET));
+        if (powerSupply != null) {
+            counter.setPowerSupply(powerSupply);
+        }
+
+        InputMode inputMode = InputMode.getEnum(getInt(configuration, CHANNEL_CONFIG_INPUT_MODE, UNSET));
+        if (inputMode != null) {
+            counter.setInputMode(inputMode);
+        }
+    }
+
+    @Override
+    public State read(Phidget phidget) throws PhidgetException {
+        return new DecimalType(((FrequencyCounter) phidget).getFrequency());
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.PhidgetException;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+
+import java.util.Set;
+
+/**
+ * The {@link PhidgetChannel} is the phidget backing a bound channel, as created by the
+ * {@link PhidgetChannelAdapter} of the channel. The handler only goes through this interface, so the adapters
+ * decide whether a channel is a phidget of the native library or a stand-in for one.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public interface PhidgetChannel {
+    /**
+     * Registers the listener for the attach, detach and value events of the channel. Called once, before the
+     * channel is opened.
+     */
+    void addListener(PhidgetChannelBinding binding, PhidgetChannelListener listener);
+
+    void open() throws PhidgetException;
+
+    void close() throws PhidgetException;
+
+    boolean getAttached() throws PhidgetException;
+
+    /**
+     * Applies the configuration of the channel. Called on every attach.
+     */
+    void configure(Configuration configuration) throws PhidgetException;
+
+    /**
+     * Applies the changed parameters of the channel while it is attached.
+     */
+    void reconfigure(Configuration configuration, Set<String> changed) throws PhidgetException;
+
+    /**
+     * Reads the current state of the channel.
+     */
+    @Nullable State read() throws PhidgetException;
+
+    /**
+     * Applies the command to the channel and returns the resulting state, or null if the command does not
+     * apply to it.
+     */
+    @Nullable State write(Command command) throws PhidgetException;
+}
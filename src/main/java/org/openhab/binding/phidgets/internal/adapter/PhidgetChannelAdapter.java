@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.HubPortMode;
+import com.phidget22.PhidgetException;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelKey;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link PhidgetChannelAdapter} holds everything that depends on the phidget class backing a channel:
+ * how the channel is processed, how its commands behave and creating the {@link PhidgetChannel} that is
+ * opened, configured, read and written for it. There is one adapter per phidget class, resolved once when a
+ * channel is bound, so events and commands never have to find out what kind of phidget they are for.
+ *
+ * Adapters are stateless and shared by all channels of their kind. The adapters of the phidget classes
+ * extend {@link PhidgetDeviceAdapter}; other adapters, such as those of {@link SimulatedChannels}, stand in
+ * for them without devices.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public abstract class PhidgetChannelAdapter {
+    /** Value of integer parameters that are not configured, which no phidget enum maps to */
+    protected static final int UNSET = -1;
+
+    private final String channelTypeId;
+
+    protected PhidgetChannelAdapter(String channelTypeId) {
+        this.channelTypeId = channelTypeId;
+    }
+
+    /**
+     * @return the id of the channel type the channels of this adapter resolve to
+     */
+    public String getChannelTypeId() {
+        return channelTypeId;
+    }
+
+    /**
+     * @return the mode a VINT port is set to for a channel of this adapter, or null if ports do not support it
+     */
+    public @Nullable HubPortMode getHubPortMode() {
+        return null;
+    }
+
+    /**
+     * @return true if the values of the channel are sensor samples, which go through calibration, the
+     *         coalescing stage, the journal and the statistic channels
+     */
+    public boolean isSensor() {
+        return false;
+    }
+
+    /**
+     * @return true if the command is kept while the channel is detached and written when it attaches
+     */
+    public boolean isRestorable(Command command) {
+        return false;
+    }
+
+    /**
+     * @return true if the channel is an output that can be switched on for a time by pulse commands
+     */
+    public boolean isPulsable() {
+        return false;
+    }
+
+    /**
+     * Creates an unopened channel for the given key.
+     */
+    public abstract PhidgetChannel createChannel(PhidgetChannelKey key) throws PhidgetException;
+
+    public static State toState(boolean state) {
+        return state ? OnOffType.ON : OnOffType.OFF;
+    }
+
+    protected static int getInt(Configuration configuration, String name, int defaultValue) {
+        Object value = configuration.get(name);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    protected static double getDouble(Configuration configuration, String name, double defaultValue) {
+        Object value = configuration.get(name);
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    /**
+     * @return the configured data interval limited to what the phidget supports, or 0 if none is configured
+     */
+    protected static int getDataInterval(Configuration configuration, int min, int max) {
+        int dataInterval = getInt(configuration, CHANNEL_CONFIG_DATA_INTERVAL, 0);
+        return dataInterval > 0 ? Math.max(min, Math.min(max, dataInterval)) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return channelTypeId;
+    }
+}
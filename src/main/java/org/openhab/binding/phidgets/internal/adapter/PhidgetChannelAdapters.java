@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.HubPortMode;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.phidgets.internal.PhidgetChannelKey;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link PhidgetChannelAdapters} is the registry of the {@link PhidgetChannelAdapter}s, keyed by the
+ * channel type id their channels resolve to. Supporting another phidget class only takes an adapter
+ * registered here and a channel type for it.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public final class PhidgetChannelAdapters {
+    /**
+     * Adapter of channels without a phidget class, which create no phidget and have no state.
+     */
+    public static final PhidgetChannelAdapter NONE = new PhidgetChannelAdapter("none") {
+        @Override
+        public PhidgetChannel createChannel(PhidgetChannelKey key) {
+            throw new UnsupportedOperationException("Channel has no phidget");
+        }
+    };
+
+    private static final Map<String, PhidgetChannelAdapter> ADAPTERS = new HashMap<>();
+    private static final Map<HubPortMode, PhidgetChannelAdapter> PORT_MODES = new EnumMap<>(HubPortMode.class);
+
+    static {
+        register(new VoltageInputAdapter());
+        register(new VoltageRatioInputAdapter());
+        register(new DigitalInputAdapter());
+        register(new DigitalOutputAdapter());
+        register(new TemperatureSensorAdapter());
+        register(new FrequencyCounterAdapter());
+        register(new EncoderAdapter());
+        register(new CurrentInputAdapter());
+    }
+
+    private PhidgetChannelAdapters() {
+    }
+
+    private static void register(PhidgetChannelAdapter adapter) {
+        ADAPTERS.put(adapter.getChannelTypeId(), adapter);
+        HubPortMode hubPortMode = adapter.getHubPortMode();
+        if (hubPortMode != null) {
+            PORT_MODES.put(hubPortMode, adapter);
+        }
+    }
+
+    /**
+     * @return the adapter of the given resolved channel type, or {@link #NONE} if no phidget class backs it
+     */
+    public static PhidgetChannelAdapter forChannelType(String channelTypeId) {
+        PhidgetChannelAdapter adapter = ADAPTERS.get(channelTypeId);
+        return adapter == null ? NONE : adapter;
+    }
+
+    /**
+     * @return the adapter of VINT ports in the given mode, or null if the binding does not support the mode
+     */
+    public static @Nullable PhidgetChannelAdapter forHubPortMode(HubPortMode hubPortMode) {
+        return PORT_MODES.get(hubPortMode);
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+
+/**
+ * The {@link PhidgetChannelListener} receives the attach and detach events and the values of a
+ * {@link PhidgetChannel}. Called from the phidget callback threads.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public interface PhidgetChannelListener {
+    void onAttach(PhidgetChannelBinding binding);
+
+    void onDetach(PhidgetChannelBinding binding);
+
+    void onSensorChange(PhidgetChannelBinding binding, double value);
+
+    void onStateChange(PhidgetChannelBinding binding, boolean state);
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.Phidget;
+import com.phidget22.PhidgetException;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+import org.openhab.binding.phidgets.internal.PhidgetChannelKey;
+
+import java.util.Set;
+
+/**
+ * The {@link PhidgetDeviceAdapter} is the base of the adapters of the phidget classes. Its channels are
+ * phidgets of the native library, addressed by the serial number, hub port and channel of their key. The
+ * methods taking a phidget expect one created by the same adapter.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+abstract class PhidgetDeviceAdapter extends PhidgetChannelAdapter {
+    protected PhidgetDeviceAdapter(String channelTypeId) {
+        super(channelTypeId);
+    }
+
+    @Override
+    public PhidgetChannel createChannel(PhidgetChannelKey key) throws PhidgetException {
+        Phidget phidget = create();
+        phidget.setDeviceSerialNumber(key.getSerialNumber());
+        if (key.isHubPort()) {
+            phidget.setIsHubPortDevice(true);
+            phidget.setHubPort(key.getHubPort());
+            phidget.setChannel(key.hasChannel() ? key.getChannel() : 0);
+        } else if (key.hasChannel()) {
+            phidget.setChannel(key.getChannel());
+        }
+        return new DeviceChannel(this, phidget);
+    }
+
+    /**
+     * Creates an unopened phidget of the class of this adapter.
+     */
+    public abstract Phidget create() throws PhidgetException;
+
+    /**
+     * Registers the listeners that pass the values of the phidget on to the given listener.
+     */
+    public void addListeners(Phidget phidget, PhidgetChannelBinding binding, PhidgetChannelListener listener) {
+    }
+
+    /**
+     * Applies the configuration of the channel to the attached phidget.
+     */
+    public void configure(Phidget phidget, Configuration configuration) throws PhidgetException {
+    }
+
+    /**
+     * Applies changed parameters of the channel to the attached phidget. Parameters are only applied on
+     * attach when set, so adapters override this for parameters that have to be reset when they are removed.
+     */
+    public void reconfigure(Phidget phidget, Configuration configuration, Set<String> changed)
+            throws PhidgetException {
+        configure(phidget, configuration);
+    }
+
+    /**
+     * Reads the current state of the phidget.
+     */
+    public abstract @Nullable State read(Phidget phidget) throws PhidgetException;
+
+    /**
+     * Applies the command to the phidget and returns the resulting state, or null if the command does not
+     * apply to this kind of phidget.
+     */
+    public @Nullable State write(Phidget phidget, Command command) throws PhidgetException {
+        return null;
+    }
+
+    /**
+     * A phidget together with the adapter that created it.
+     */
+    private static final class DeviceChannel implements PhidgetChannel {
+        private final PhidgetDeviceAdapter adapter;
+        private final Phidget phidget;
+
+        DeviceChannel(PhidgetDeviceAdapter adapter, Phidget phidget) {
+            this.adapter = adapter;
+            this.phidget = phidget;
+        }
+
+        @Override
+        public void addListener(PhidgetChannelBinding binding, PhidgetChannelListener listener) {
+            phidget.addAttachListener((event) -> listener.onAttach(binding));
+            phidget.addDetachListener((event) -> listener.onDetach(binding));
+            adapter.addListeners(phidget, binding, listener);
+        }
+
+        @Override
+        public void open() throws PhidgetException {
+            phidget.open();
+        }
+
+        @Override
+        public void close() throws PhidgetException {
+            phidget.close();
+        }
+
+        @Override
+        public boolean getAttached() throws PhidgetException {
+            return phidget.getAttached();
+        }
+
+        @Override
+        public void configure(Configuration configuration) throws PhidgetException {
+            adapter.configure(phidget, configuration);
+        }
+
+        @Override
+        public void reconfigure(Configuration configuration, Set<String> changed) throws PhidgetException {
+            adapter.reconfigure(phidget, configuration, changed);
+        }
+
+        @Override
+        public @Nullable State read() throws PhidgetException {
+            return adapter.read(phidget);
+        }
+
+        @Override
+        public @Nullable State write(Command command) throws PhidgetException {
+            return adapter.write(phidget, command);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+
+import java.util.Set;
+
+/**
+ * The {@link SimulatedChannel} stands in for a phidget. It passes the events fed into it on to its listener
+ * the way the phidget callbacks would, on the calling thread. It reads the last value or state and takes on
+ * and off commands like a digital output.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public class SimulatedChannel implements PhidgetChannel {
+    private final SimulatedChannels channels;
+    private volatile @Nullable PhidgetChannelBinding binding;
+    private volatile @Nullable PhidgetChannelListener listener;
+    private volatile boolean attached;
+    private volatile double value = Double.NaN;
+    private volatile @Nullable State state;
+
+    public SimulatedChannel(SimulatedChannels channels) {
+        this.channels = channels;
+    }
+
+    /**
+     * @return the binding of the channel, or null before the handler has set it up
+     */
+    public @Nullable PhidgetChannelBinding getBinding() {
+        return binding;
+    }
+
+    @Override
+    public void addListener(PhidgetChannelBinding binding, PhidgetChannelListener listener) {
+        this.binding = binding;
+        this.listener = listener;
+    }
+
+    @Override
+    public void open() {
+        PhidgetChannelBinding binding = this.binding;
+        if (binding != null) {
+            channels.opened(binding.getUID(), this);
+        }
+    }
+
+    @Override
+    public void close() {
+        attached = false;
+        PhidgetChannelBinding binding = this.binding;
+        if (binding != null) {
+            channels.closed(binding.getUID(), this);
+        }
+    }
+
+    @Override
+    public boolean getAttached() {
+        return attached;
+    }
+
+    @Override
+    public void configure(Configuration configuration) {
+    }
+
+    @Override
+    public void reconfigure(Configuration configuration, Set<String> changed) {
+    }
+
+    @Override
+    public @Nullable State read() {
+        State state = this.state;
+        if (state != null) {
+            return state;
+        }
+        double value = this.value;
+        return Double.isNaN(value) ? null : new DecimalType(value);
+    }
+
+    @Override
+    public @Nullable State write(Command command) {
+        if (command instanceof OnOffType) {
+            state = (OnOffType) command;
+            return (OnOffType) command;
+        }
+        return null;
+    }
+
+    public void attach() {
+        attached = true;
+        PhidgetChannelBinding binding = this.binding;
+        PhidgetChannelListener listener = this.listener;
+        if (binding != null && listener != null) {
+            listener.onAttach(binding);
+        }
+    }
+
+    public void detach() {
+        attached = false;
+        PhidgetChannelBinding binding = this.binding;
+        PhidgetChannelListener listener = this.listener;
+        if (binding != null && listener != null) {
+            listener.onDetach(binding);
+        }
+    }
+
+    public void sensorChange(double value) {
+        this.value = value;
+        PhidgetChannelBinding binding = this.binding;
+        PhidgetChannelListener listener = this.listener;
+        if (binding != null && listener != null) {
+            listener.onSensorChange(binding, value);
+        }
+    }
+
+    public void stateChange(boolean state) {
+        this.state = PhidgetChannelAdapter.toState(state);
+        PhidgetChannelBinding binding = this.binding;
+        PhidgetChannelListener listener = this.listener;
+        if (binding != null && listener != null) {
+            listener.onStateChange(binding, state);
+        }
+    }
+}
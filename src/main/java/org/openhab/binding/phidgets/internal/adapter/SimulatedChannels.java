@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.HubPortMode;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.types.Command;
+import org.openhab.binding.phidgets.internal.PhidgetChannelKey;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link SimulatedChannels} stand in for the phidgets of the channels of a channel factory, for replay,
+ * simulations and benchmarks without devices or the native library. Their adapters, passed to the
+ * {@code PhidgetsChannelFactory}, resolve and process channels like the adapters of the phidget classes, but
+ * create a {@link SimulatedChannel} for every channel that is opened. Events are fed into the open channels,
+ * found by their channel UID.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+public class SimulatedChannels {
+    private final Map<String, PhidgetChannelAdapter> adapters = new ConcurrentHashMap<>();
+    private final Map<ChannelUID, SimulatedChannel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * @return the adapter standing in for the adapter of the given channel type, or
+     *         {@link PhidgetChannelAdapters#NONE} if no phidget class backs it
+     */
+    public PhidgetChannelAdapter getAdapter(String channelTypeId) {
+        PhidgetChannelAdapter adapter = PhidgetChannelAdapters.forChannelType(channelTypeId);
+        if (adapter == PhidgetChannelAdapters.NONE) {
+            return adapter;
+        }
+        return adapters.computeIfAbsent(channelTypeId, id -> new SimulatedAdapter(adapter));
+    }
+
+    /**
+     * @return the open channel of the given channel UID, or null if it is not open
+     */
+    public @Nullable SimulatedChannel getChannel(ChannelUID channelUID) {
+        return channels.get(channelUID);
+    }
+
+    public Collection<SimulatedChannel> getChannels() {
+        return channels.values();
+    }
+
+    /**
+     * Creates the channel standing in for a phidget of the given adapter. Subclasses override this to simulate
+     * the behavior of a device, such as its write latency.
+     */
+    protected SimulatedChannel createChannel(PhidgetChannelAdapter adapter, PhidgetChannelKey key) {
+        return new SimulatedChannel(this);
+    }
+
+    void opened(ChannelUID channelUID, SimulatedChannel channel) {
+        channels.put(channelUID, channel);
+    }
+
+    void closed(ChannelUID channelUID, SimulatedChannel channel) {
+        channels.remove(channelUID, channel);
+    }
+
+    /**
+     * Takes the channel type and command behavior of the adapter it stands in for.
+     */
+    private final class SimulatedAdapter extends PhidgetChannelAdapter {
+        private final PhidgetChannelAdapter adapter;
+
+        SimulatedAdapter(PhidgetChannelAdapter adapter) {
+            super(adapter.getChannelTypeId());
+            this.adapter = adapter;
+        }
+
+        @Override
+        public @Nullable HubPortMode getHubPortMode() {
+            return adapter.getHubPortMode();
+        }
+
+        @Override
+        public boolean isSensor() {
+            return adapter.isSensor();
+        }
+
+        @Override
+        public boolean isRestorable(Command command) {
+            return adapter.isRestorable(command);
+        }
+
+        @Override
+        public boolean isPulsable() {
+            return adapter.isPulsable();
+        }
+
+        @Override
+        public PhidgetChannel createChannel(PhidgetChannelKey key) {
+            return SimulatedChannels.this.createChannel(adapter, key);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.*;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link TemperatureSensorAdapter} adapts {@link TemperatureSensor} channels, which publish the
+ * temperature in degrees Celsius.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+final class TemperatureSensorAdapter extends PhidgetDeviceAdapter {
+    TemperatureSensorAdapter() {
+        super(CHANNEL_TEMPERATURE_INPUT_ID);
+    }
+
+    @Override
+    public boolean isSensor() {
+        return true;
+    }
+
+    @Override
+    public Phidget create() throws PhidgetException {
+        return new TemperatureSensor();
+    }
+
+    @Override
+    public void addListeners(Phidget phidget, PhidgetChannelBinding binding, PhidgetChannelListener listener) {
+        ((TemperatureSensor) phidget)
+                .addTemperatureChangeListener((event) -> listener.onSensorChange(binding, event.getTemperature()));
+    }
+
+    @Override
+    public void configure(Phidget phidget, Configuration configuration) throws PhidgetException {
+        TemperatureSensor sensor = (TemperatureSensor) phidget;
+        int dataInterval = getDataInterval(configuration, sensor.getMinDataInterval(), sensor.getMaxDataInterval());
+        if (dataInterval > 0) {
+            sensor.setDataInterval(dataInterval);
+        }
+        Number sensitivity = (Number) configuration.get(CHANNEL_CONFIG_SENSITIVITY);
+        if (sensitivity != null) {
+            sensor.setTemperatureChangeTrigger(sensitivity.doubleValue());
+        }
+    }
+
+    @Override
+    public State read(Phidget phidget) throws PhidgetException {
+        return new DecimalType(((TemperatureSensor) phidget).getTemperature());
+    }
+}
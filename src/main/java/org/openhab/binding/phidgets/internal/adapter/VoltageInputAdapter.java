@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.*;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link VoltageInputAdapter} adapts {@link VoltageInput} channels. They publish the sensor value, or
+ * the raw voltage at the highest data rate.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+final class VoltageInputAdapter extends PhidgetDeviceAdapter {
+    VoltageInputAdapter() {
+        super(CHANNEL_VOLTAGE_INPUT_ID);
+    }
+
+    @Override
+    public HubPortMode getHubPortMode() {
+        return HubPortMode.VOLTAGE_INPUT;
+    }
+
+    @Override
+    public boolean isSensor() {
+        return true;
+    }
+
+    @Override
+    public Phidget create() throws PhidgetException {
+        return new VoltageInput();
+    }
+
+    @Override
+    public void addListeners(Phidget phidget, PhidgetChannelBinding binding, PhidgetChannelListener listener) {
+        VoltageInput vin = (VoltageInput) phidget;
+        if (Boolean.TRUE.equals(binding.getChannel().getConfiguration().get(CHANNEL_CONFIG_HIGH_RATE))) {
+            vin.addVoltageChangeListener((event) -> listener.onSensorChange(binding, event.getVoltage()));
+        } else {
+            vin.addSensorChangeListener((event) -> listener.onSensorChange(binding, event.getSensorValue()));
+        }
+    }
+
+    @Override
+    public void configure(Phidget phidget, Configuration configuration) throws PhidgetException {
+        VoltageInput vin = (VoltageInput) phidget;
+        if (Boolean.TRUE.equals(configuration.get(CHANNEL_CONFIG_HIGH_RATE))) {
+            vin.setDataInterval(vin.getMinDataInterval());
+            vin.setVoltageChangeTrigger(0);
+        } else {
+            int dataInterval = getDataInterval(configuration, vin.getMinDataInterval(), vin.getMaxDataInterval());
+            if (dataInterval > 0) {
+                vin.setDataInterval(dataInterval);
+            }
+            vin.setSensorValueChangeTrigger(
+                    getDouble(configuration, CHANNEL_CONFIG_SENSITIVITY, CHANNEL_DEFAULT_SENSITIVITY));
+        }
+
+        VoltageSensorType sensorType = VoltageSensorType
+                .getEnum(getInt(configuration, CHANNEL_CONFIG_SENSOR_TYPE, UNSET));
+        if (sensorType != null) {
+            vin.setSensorType(sensorType);
+        }
+
+        PowerSupply powerSupply = PowerSupply.getEnum(getInt(configuration, CHANNEL_CONFIG_POWER_SUPPLY, UNSET));
+        if (powerSupply != null) {
+            vin.setPowerSupply(powerSupply);
+        }
+
+        VoltageRange voltageRange = VoltageRange.getEnum(getInt(configuration, CHANNEL_CONFIG_VOLTAGE_RANGE, UNSET));
+        if (voltageRange != null) {
+            vin.setVoltageRange(voltageRange);
+        }
+    }
+
+    @Override
+    public State read(Phidget phidget) throws PhidgetException {
+        return new DecimalType(((VoltageInput) phidget).getVoltage());
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal.adapter;
+
+import com.phidget22.*;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+
+import java.util.Set;
+
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * The {@link VoltageRatioInputAdapter} adapts {@link VoltageRatioInput} channels. They publish the sensor
+ * value, or the raw voltage ratio at the highest data rate.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+@NonNullByDefault
+final class VoltageRatioInputAdapter extends PhidgetDeviceAdapter {
+    VoltageRatioInputAdapter() {
+        super(CHANNEL_VOLTAGE_RATIO_INPUT_ID);
+    }
+
+    @Override
+    public HubPortMode getHubPortMode() {
+        return HubPortMode.VOLTAGE_RATIO_INPUT;
+    }
+
+    @Override
+    public boolean isSensor() {
+        return true;
+    }
+
+    @Override
+    public Phidget create() throws PhidgetException {
+        return new VoltageRatioInput();
+    }
+
+    @Override
+    public void addListeners(Phidget phidget, PhidgetChannelBinding binding, PhidgetChannelListener listener) {
+        VoltageRatioInput vri = (VoltageRatioInput) phidget;
+        if (Boolean.TRUE.equals(binding.getChannel().getConfiguration().get(CHANNEL_CONFIG_HIGH_RATE))) {
+            vri.addVoltageRatioChangeListener((event) -> listener.onSensorChange(binding, event.getVoltageRatio()));
+        } else {
+            vri.addSensorChangeListener((event) -> listener.onSensorChange(binding, event.getSensorValue()));
+        }
+    }
+
+    @Override
+    public void configure(Phidget phidget, Configuration configuration) throws PhidgetException {
+        VoltageRatioInput vri = (VoltageRatioInput) phidget;
+        if (Boolean.TRUE.equals(configuration.get(CHANNEL_CONFIG_HIGH_RATE))) {
+            vri.setDataInterval(vri.getMinDataInterval());
+            vri.setVoltageRatioChangeTrigger(0);
+        } else {
+            int dataInterval = getDataInterval(configuration, vri.getMinDataInterval(), vri.getMaxDataInterval());
+            if (dataInterval > 0) {
+                vri.setDataInterval(dataInterval);
+            }
+            vri.setSensorValueChangeTrigger(
+                    getDouble(configuration, CHANNEL_CONFIG_SENSITIVITY, CHANNEL_DEFAULT_SENSITIVITY));
+        }
+
+        int sensorTypeId = getInt(configuration, CHANNEL_CONFIG_SENSOR_TYPE, UNSET);
+        VoltageRatioSensorType sensorType = VoltageRatioSensorType.getEnum(sensorTypeId);
+        if (sensorType != null) {
+            vri.setSensorType(sensorType);
+        }
+
+        // only enabled when set, leaving the bridge of devices without one alone
+        if (Boolean.TRUE.equals(configuration.get(CHANNEL_CONFIG_BRIDGE_ENABLE))) {
+            vri.setBridgeEnabled(true);
+        }
+
+        BridgeGain bridgeGain = BridgeGain.getEnum(getInt(configuration, CHANNEL_CONFIG_BRIDGE_GAIN, UNSET));
+        if (bridgeGain != null) {
+            vri.setBridgeGain(bridgeGain);
+        }
+    }
+
+    @Override
+    public void reconfigure(Phidget phidget, Configuration configuration, Set<String> changed)
+            throws PhidgetException {
+        configure(phidget, configuration);
+        if (changed.contains(CHANNEL_CONFIG_BRIDGE_ENABLE)) {
+            ((VoltageRatioInput) phidget)
+                    .setBridgeEnabled(Boolean.TRUE.equals(configuration.get(CHANNEL_CONFIG_BRIDGE_ENABLE)));
+        }
+    }
+
+    @Override
+    public State read(Phidget phidget) throws PhidgetException {
+        return new DecimalType(((VoltageRatioInput) phidget).getVoltageRatio());
+    }
+}
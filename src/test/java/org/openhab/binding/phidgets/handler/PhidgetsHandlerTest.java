@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.handler;
+
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingStatusInfo;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandlerCallback;
+import org.eclipse.smarthome.core.thing.binding.builder.ChannelBuilder;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.binding.phidgets.internal.InterlockRegistry;
+import org.openhab.binding.phidgets.internal.PhidgetChannelBinding;
+import org.openhab.binding.phidgets.internal.PhidgetsChannelFactory;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannel;
+import org.openhab.binding.phidgets.internal.adapter.SimulatedChannels;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.openhab.binding.phidgets.PhidgetsBindingConstants.*;
+
+/**
+ * Tests for {@link PhidgetsHandler}, on simulated channels.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+public class PhidgetsHandlerTest {
+    private static final ThingUID THING = new ThingUID(THING_PHIDGET_1010_1013_1018_1019, "123456");
+    private static final ChannelUID VOLTAGE_INPUT = new ChannelUID(THING, "voltage-input-0");
+
+    private final SimulatedChannels channels = new SimulatedChannels();
+    private final List<ThingStatusInfo> statuses = new CopyOnWriteArrayList<>();
+
+    private PhidgetsHandler handler;
+    private PhidgetsHandler remoteHandler;
+
+    @After
+    public void tearDown() {
+        if (handler != null) {
+            handler.dispose();
+        }
+        if (remoteHandler != null) {
+            remoteHandler.dispose();
+        }
+    }
+
+    private void initialize(boolean linked) {
+        handler = createHandler(createThing(Collections.emptyMap()), new PhidgetsChannelFactory(channels::getAdapter),
+                linked);
+    }
+
+    private PhidgetsHandler createHandler(Thing thing, PhidgetsChannelFactory channelFactory, boolean linked) {
+        PhidgetsHandler handler = new PhidgetsHandler(thing, channelFactory);
+        handler.setCallback((ThingHandlerCallback) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { ThingHandlerCallback.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isChannelLinked":
+                            return linked;
+                        case "statusUpdated":
+                            statuses.add((ThingStatusInfo) args[1]);
+                            return null;
+                        default:
+                            return null;
+                    }
+                }));
+        handler.initialize();
+        return handler;
+    }
+
+    private static Thing createThing(Map<String, Object> configuration) {
+        Channel channel = ChannelBuilder.create(VOLTAGE_INPUT, "Number").withType(CHANNEL_VOLTAGE_INPUT)
+                .withConfiguration(new Configuration(new HashMap<>(configuration)))
+                .withProperties(Collections.singletonMap(CHANNEL_PROPERTY_CHANNEL, "0")).build();
+        return ThingBuilder.create(THING_PHIDGET_1010_1013_1018_1019, THING.getId())
+                .withProperties(Collections.singletonMap(THING_CONFIG_SERIAL_NUMBER, THING.getId()))
+                .withChannels(Collections.singletonList(channel)).build();
+    }
+
+    /**
+     * Waits until a simulated channel other than the given one is open for the voltage input.
+     */
+    private SimulatedChannel awaitOpen(SimulatedChannel previous) throws InterruptedException {
+        return awaitOpen(channels, VOLTAGE_INPUT, previous);
+    }
+
+    private static SimulatedChannel awaitOpen(SimulatedChannels channels, ChannelUID channelUID,
+            SimulatedChannel previous) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            SimulatedChannel channel = channels.getChannel(channelUID);
+            if (channel != null && channel != previous) {
+                return channel;
+            }
+            Thread.sleep(1);
+        }
+        throw new AssertionError("Channel " + channelUID + " was not opened");
+    }
+
+    /**
+     * Waits until the given status is the last one published.
+     */
+    private ThingStatusInfo awaitStatus(ThingStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (!statuses.isEmpty() && statuses.get(statuses.size() - 1).getStatus() == status) {
+                return statuses.get(statuses.size() - 1);
+            }
+            Thread.sleep(1);
+        }
+        throw new AssertionError("Thing did not become " + status + ", statuses were " + statuses);
+    }
+
+    private Object getHighRate() {
+        PhidgetChannelBinding binding = handler.getBinding(VOLTAGE_INPUT);
+        assertNotNull(binding);
+        return binding.getChannel().getConfiguration().get(CHANNEL_CONFIG_HIGH_RATE);
+    }
+
+    @Test
+    public void liveParameterKeepsPhidget() throws InterruptedException {
+        initialize(true);
+        SimulatedChannel phidget = awaitOpen(null);
+        phidget.attach();
+
+        handler.thingUpdated(createThing(Collections.singletonMap(CHANNEL_CONFIG_SENSITIVITY, 0.5)));
+
+        assertSame(phidget, channels.getChannel(VOLTAGE_INPUT));
+        assertSame(phidget, handler.getBinding(VOLTAGE_INPUT).getPhidget());
+        assertTrue(phidget.getAttached());
+    }
+
+    @Test
+    public void highRateToggleReopensPhidget() throws InterruptedException {
+        initialize(true);
+        SimulatedChannel phidget = awaitOpen(null);
+        phidget.attach();
+
+        handler.thingUpdated(createThing(Collections.singletonMap(CHANNEL_CONFIG_HIGH_RATE, true)));
+        SimulatedChannel highRate = awaitOpen(phidget);
+
+        assertFalse(phidget.getAttached());
+        assertSame(highRate, handler.getBinding(VOLTAGE_INPUT).getPhidget());
+        assertSame(handler.getBinding(VOLTAGE_INPUT), highRate.getBinding());
+        assertEquals(Boolean.TRUE, getHighRate());
+
+        highRate.attach();
+        handler.thingUpdated(createThing(Collections.singletonMap(CHANNEL_CONFIG_HIGH_RATE, false)));
+        SimulatedChannel lowRate = awaitOpen(highRate);
+
+        assertFalse(highRate.getAttached());
+        assertSame(lowRate, handler.getBinding(VOLTAGE_INPUT).getPhidget());
+        assertEquals(Boolean.FALSE, getHighRate());
+    }
+
+    @Test
+    public void thingWithoutLinkedChannelsGoesOnline() throws InterruptedException {
+        initialize(false);
+
+        assertEquals("No linked channels", awaitStatus(ThingStatus.ONLINE).getDescription());
+        assertNull(channels.getChannel(VOLTAGE_INPUT));
+    }
+
+    @Test
+    public void statusFollowsAttachedChannels() throws InterruptedException {
+        initialize(true);
+        SimulatedChannel phidget = awaitOpen(null);
+
+        phidget.attach();
+        assertNull(awaitStatus(ThingStatus.ONLINE).getDescription());
+        phidget.detach();
+        awaitStatus(ThingStatus.OFFLINE);
+    }
+
+    @Test
+    public void interlockSwitchesOutputOfThingWithOwnChannelFactory() throws InterruptedException {
+        InterlockRegistry interlocks = new InterlockRegistry();
+        ThingUID pumpUID = new ThingUID(THING_PHIDGET_1010_1013_1018_1019, "654321");
+        ChannelUID pumpOutputUID = new ChannelUID(pumpUID, "digital-output-0");
+        SimulatedChannels pumpChannels = new SimulatedChannels();
+        Thing pump = ThingBuilder.create(THING_PHIDGET_1010_1013_1018_1019, pumpUID.getId())
+                .withProperties(Collections.singletonMap(THING_CONFIG_SERIAL_NUMBER, pumpUID.getId()))
+                .withChannels(Collections.singletonList(ChannelBuilder.create(pumpOutputUID, "Switch")
+                        .withType(CHANNEL_DIGITAL_OUTPUT)
+                        .withProperties(Collections.singletonMap(CHANNEL_PROPERTY_CHANNEL, "0")).build()))
+                .build();
+        remoteHandler = createHandler(pump, new PhidgetsChannelFactory(pumpChannels::getAdapter, interlocks), true);
+        SimulatedChannel pumpOutput = awaitOpen(pumpChannels, pumpOutputUID, null);
+        pumpOutput.attach();
+
+        ChannelUID inputUID = new ChannelUID(THING, "digital-input-0");
+        Thing switches = ThingBuilder.create(THING_PHIDGET_1010_1013_1018_1019, THING.getId())
+                .withProperties(Collections.singletonMap(THING_CONFIG_SERIAL_NUMBER, THING.getId()))
+                .withConfiguration(new Configuration(new HashMap<>(Collections.singletonMap(THING_CONFIG_INTERLOCKS,
+                        "digital-input-0 ON -> " + pumpOutputUID + " ON"))))
+                .withChannels(Collections.singletonList(ChannelBuilder.create(inputUID, "Switch")
+                        .withType(CHANNEL_DIGITAL_INPUT)
+                        .withProperties(Collections.singletonMap(CHANNEL_PROPERTY_CHANNEL, "0")).build()))
+                .build();
+        handler = createHandler(switches, new PhidgetsChannelFactory(channels::getAdapter, interlocks), true);
+        SimulatedChannel input = awaitOpen(channels, inputUID, null);
+        input.attach();
+        input.stateChange(true);
+
+        assertEquals(OnOffType.ON, pumpOutput.read());
+        assertEquals(0, handler.getMetrics().interlocksMissed.sum());
+    }
+}
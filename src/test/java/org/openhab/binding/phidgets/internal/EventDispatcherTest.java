@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.binding.phidgets.internal.EventDispatcher.OverflowPolicy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link EventDispatcher}.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+public class EventDispatcherTest {
+    private static final ThingUID THING = new ThingUID("phidgets:phidget:test");
+
+    private final ThingMetrics metrics = new ThingMetrics();
+    private final Map<ChannelUID, List<State>> published = new ConcurrentHashMap<>();
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    private ExecutorService pool;
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ChannelUID channel(int index) {
+        return new ChannelUID(THING, "ai_" + index);
+    }
+
+    private void publish(ChannelUID channelUID, State state) {
+        published.computeIfAbsent(channelUID, uid -> Collections.synchronizedList(new ArrayList<>())).add(state);
+    }
+
+    /**
+     * Runs the drain tasks the dispatcher submitted to the manual executor, until none are left.
+     */
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private List<State> published(int channel) {
+        List<State> states = published.get(channel(channel));
+        return states == null ? Collections.emptyList() : states;
+    }
+
+    @Test
+    public void dispatchDoesNotWaitForSlowConsumer() throws Exception {
+        pool = Executors.newSingleThreadExecutor();
+        CountDownLatch received = new CountDownLatch(1);
+        EventDispatcher dispatcher = new EventDispatcher(pool, 100, OverflowPolicy.DROP_OLDEST, (uid, state) -> {
+            received.countDown();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, metrics);
+
+        dispatcher.dispatch(channel(0), new DecimalType(0));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        // the consumer is now busy for 200 ms with the first state
+        long start = System.nanoTime();
+        for (int i = 1; i <= 1000; i++) {
+            dispatcher.dispatch(channel(i % 10), new DecimalType(i));
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("dispatching took " + elapsed + " ms", elapsed < 100);
+        assertEquals(100, dispatcher.getQueueDepth());
+        assertEquals(900, metrics.dispatchDropped.sum());
+        assertEquals(100, metrics.dispatchQueueDepthMax.get());
+    }
+
+    @Test
+    public void latestPolicyReplacesQueuedStateOfChannel() {
+        EventDispatcher dispatcher = new EventDispatcher(tasks::add, 4, OverflowPolicy.LATEST, this::publish,
+                metrics);
+
+        for (int i = 1; i <= 3; i++) {
+            dispatcher.dispatch(channel(0), new DecimalType(i));
+        }
+        assertEquals(2, metrics.dispatchReplaced.sum());
+        assertEquals(1, dispatcher.getQueueDepth());
+
+        // four more channels overflow the queue, which drops the oldest, the state of channel 0
+        for (int channel = 1; channel <= 4; channel++) {
+            dispatcher.dispatch(channel(channel), new DecimalType(channel * 10));
+        }
+        assertEquals(1, metrics.dispatchDropped.sum());
+        assertEquals(4, dispatcher.getQueueDepth());
+
+        runTasks();
+        assertTrue(published(0).isEmpty());
+        for (int channel = 1; channel <= 4; channel++) {
+            assertEquals(Collections.singletonList(new DecimalType(channel * 10)), published(channel));
+        }
+        assertEquals(0, dispatcher.getQueueDepth());
+    }
+
+    @Test
+    public void latestPolicyPublishesLatestStateOnce() {
+        EventDispatcher dispatcher = new EventDispatcher(tasks::add, 16, OverflowPolicy.LATEST, this::publish,
+                metrics);
+
+        dispatcher.dispatch(channel(0), new DecimalType(1));
+        dispatcher.dispatch(channel(1), new DecimalType(2));
+        dispatcher.dispatch(channel(0), new DecimalType(3));
+        runTasks();
+
+        assertEquals(Collections.singletonList(new DecimalType(3)), published(0));
+        assertEquals(Collections.singletonList(new DecimalType(2)), published(1));
+        assertEquals(1, metrics.dispatchReplaced.sum());
+        assertEquals(0, metrics.dispatchDropped.sum());
+    }
+
+    @Test
+    public void dropOldestPolicyKeepsEveryStateUntilFull() {
+        EventDispatcher dispatcher = new EventDispatcher(tasks::add, 3, OverflowPolicy.DROP_OLDEST, this::publish,
+                metrics);
+
+        for (int i = 1; i <= 5; i++) {
+            dispatcher.dispatch(channel(0), new DecimalType(i));
+        }
+        assertEquals(0, metrics.dispatchReplaced.sum());
+        assertEquals(2, metrics.dispatchDropped.sum());
+
+        runTasks();
+        List<State> expected = new ArrayList<>();
+        for (int i = 3; i <= 5; i++) {
+            expected.add(new DecimalType(i));
+        }
+        assertEquals(expected, published(0));
+    }
+
+    @Test
+    public void statesOfChannelArePublishedInOrder() throws Exception {
+        int channels = 8;
+        int states = 5000;
+        pool = Executors.newFixedThreadPool(4);
+        EventDispatcher dispatcher = new EventDispatcher(pool, channels * states, OverflowPolicy.DROP_OLDEST,
+                this::publish, metrics);
+
+        List<Thread> producers = new ArrayList<>();
+        for (int channel = 0; channel < channels; channel++) {
+            ChannelUID channelUID = channel(channel);
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < states; i++) {
+                    dispatcher.dispatch(channelUID, new DecimalType(i));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (dispatcher.getQueueDepth() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // the last state may still be in the consumer
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(0, metrics.dispatchDropped.sum());
+        for (int channel = 0; channel < channels; channel++) {
+            List<State> received = published(channel);
+            assertEquals(states, received.size());
+            for (int i = 0; i < states; i++) {
+                assertEquals(new DecimalType(i), received.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void latestStatesOfChannelArePublishedInOrder() throws Exception {
+        int channels = 8;
+        int states = 5000;
+        pool = Executors.newFixedThreadPool(4);
+        EventDispatcher dispatcher = new EventDispatcher(pool, 4, OverflowPolicy.LATEST, this::publish, metrics);
+
+        List<Thread> producers = new ArrayList<>();
+        for (int channel = 0; channel < channels; channel++) {
+            ChannelUID channelUID = channel(channel);
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < states; i++) {
+                    dispatcher.dispatch(channelUID, new DecimalType(i));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (int channel = 0; channel < channels; channel++) {
+            int last = -1;
+            for (State state : published(channel)) {
+                int value = ((DecimalType) state).intValue();
+                assertTrue("channel " + channel + " published " + value + " after " + last, value > last);
+                last = value;
+            }
+        }
+    }
+}
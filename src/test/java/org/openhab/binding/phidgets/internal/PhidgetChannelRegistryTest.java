@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.phidgets.internal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PhidgetChannelRegistry}.
+ *
+ * @author Gunnar Skjold - Initial contribution
+ */
+public class PhidgetChannelRegistryTest {
+    private static final int THREADS = 16;
+    private static final int KEYS = 32;
+    private static final int ROUNDS = 200;
+
+    private final Map<PhidgetChannelKey, AtomicInteger> created = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        callers = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        callers.shutdownNow();
+    }
+
+    private Object count(PhidgetChannelKey key) {
+        created.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        try {
+            // widen the window in which other threads request the same key
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Object();
+    }
+
+    @Test
+    public void concurrentRequestsCreateOncePerKey() throws Exception {
+        PhidgetChannelRegistry<Object> registry = new PhidgetChannelRegistry<>(this::count, executor);
+        List<PhidgetChannelKey> keys = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            keys.add(new PhidgetChannelKey(1000 + i % 4, "digital-output", i, PhidgetChannelKey.NONE));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Future<Object>>>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            results.add(callers.submit(() -> {
+                start.await();
+                List<Future<Object>> seen = new ArrayList<>();
+                for (int r = 0; r < ROUNDS; r++) {
+                    PhidgetChannelKey key = keys.get((offset + r) % KEYS);
+                    seen.add(registry.get(key));
+                }
+                return seen;
+            }));
+        }
+        start.countDown();
+        for (Future<List<Future<Object>>> result : results) {
+            for (Future<Object> future : result.get(30, TimeUnit.SECONDS)) {
+                assertNotNull(future.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(KEYS, created.size());
+        for (PhidgetChannelKey key : keys) {
+            assertEquals("creations for " + key, 1, created.get(key).get());
+            assertSame(registry.get(key).get(), registry.get(key).get());
+        }
+    }
+
+    @Test
+    public void getAllSharesInstancesWithGet() throws Exception {
+        PhidgetChannelRegistry<Object> registry = new PhidgetChannelRegistry<>(this::count, executor);
+        PhidgetChannelKey a = new PhidgetChannelKey(1, "digital-input", 0, PhidgetChannelKey.NONE);
+        PhidgetChannelKey b = new PhidgetChannelKey(1, "digital-input", 1, PhidgetChannelKey.NONE);
+
+        Object single = registry.get(a).get(5, TimeUnit.SECONDS);
+        List<PhidgetChannelKey> keys = new ArrayList<>();
+        keys.add(a);
+        keys.add(b);
+        Map<PhidgetChannelKey, Object> all = registry.getAll(keys).get(5, TimeUnit.SECONDS);
+
+        assertSame(single, all.get(a));
+        assertNotNull(all.get(b));
+        assertEquals(1, created.get(a).get());
+        assertEquals(1, created.get(b).get());
+    }
+
+    @Test
+    public void failedCreationIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        // a direct executor completes the creation before get returns, which is the case that used to stick
+        PhidgetChannelRegistry<Object> registry = new PhidgetChannelRegistry<>(key -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                return null;
+            }
+            if (attempt == 2) {
+                throw new IllegalStateException("device busy");
+            }
+            return new Object();
+        }, Runnable::run);
+        PhidgetChannelKey key = new PhidgetChannelKey(1, "digital-output", 0, PhidgetChannelKey.NONE);
+
+        assertNull(registry.get(key).get(5, TimeUnit.SECONDS));
+        assertTrue(registry.get(key).isCompletedExceptionally());
+        Object value = registry.get(key).get(5, TimeUnit.SECONDS);
+
+        assertNotNull(value);
+        assertSame(value, registry.get(key).get(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void failedCreationIsRetriedOnExecutor() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        PhidgetChannelRegistry<Object> registry = new PhidgetChannelRegistry<>(
+                key -> attempts.incrementAndGet() == 1 ? null : new Object(), executor);
+        PhidgetChannelKey key = new PhidgetChannelKey(1, "digital-output", 0, PhidgetChannelKey.NONE);
+        List<PhidgetChannelKey> keys = new ArrayList<>();
+        keys.add(key);
+
+        assertTrue(registry.getAll(keys).get(5, TimeUnit.SECONDS).isEmpty());
+        assertNotNull(registry.getAll(keys).get(5, TimeUnit.SECONDS).get(key));
+        assertEquals(2, attempts.get());
+    }
+}